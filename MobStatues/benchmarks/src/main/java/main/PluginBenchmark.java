@@ -0,0 +1,135 @@
+package main;
+
+import org.bukkit.Location;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The plugin's own entry points, running on the stand-in server with one player who
+ * has created every statue through /ms: tab completion, the EntityDeathEvent handler
+ * for an entity that is not a statue, and statue ID generation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PluginBenchmark {
+	private static final long SEED = 42L;
+
+	@Param({ "10", "100", "1000", "10000", "100000" })
+	public int statueCount;
+
+	private StandInServer server;
+	private File dataFolder;
+	private MobStatues plugin;
+	private Player player;
+	private PluginCommand msCommand;
+	private PluginCommand msdelCommand;
+	private EntityDeathEvent deathEvent;
+
+	@Setup
+	public void setup() throws Exception {
+		server = StandInServer.get();
+		dataFolder = Files.createTempDirectory("mobstatues-bench").toFile();
+		plugin = server.startPlugin(dataFolder);
+		msCommand = server.command("ms");
+		msdelCommand = server.command("msdel");
+
+		Random random = new Random(SEED);
+		Location position = new Location(server.world(), 0.0, 64.0, 0.0);
+		player = server.player(new UUID(random.nextLong(), random.nextLong()), position);
+		double spread = Math.sqrt(statueCount) * 4.0;
+		for (int i = 0; i < statueCount; i++) {
+			position.setX((random.nextDouble() * 2.0 - 1.0) * spread);
+			position.setZ((random.nextDouble() * 2.0 - 1.0) * spread);
+			plugin.onCommand(player, msCommand, "ms", new String[] { "statue" + i, "zombie" });
+		}
+		position.setX(0.0);
+		position.setZ(0.0);
+		for (int ticks = 0; server.spawnedStatues() < statueCount; ticks++) {
+			if (ticks > 100_000) {
+				throw new IllegalStateException("Only " + server.spawnedStatues() + " of " + statueCount + " statues spawned.");
+			}
+			server.tick();
+		}
+
+		LivingEntity bystander = server.livingEntity(EntityType.ZOMBIE, new Location(server.world(), 1.0, 64.0, 1.0));
+		deathEvent = deathEvent(bystander);
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		server.stopPlugin(plugin);
+		StandInServer.deleteFolder(dataFolder);
+	}
+
+	@Benchmark
+	public List<String> tabCompleteStatueName() {
+		return plugin.onTabComplete(player, msdelCommand, "msdel", new String[] { "statue1" });
+	}
+
+	@Benchmark
+	public List<String> tabCompleteEntityType() {
+		return plugin.onTabComplete(player, msCommand, "ms", new String[] { "statue", "z" });
+	}
+
+	@Benchmark
+	public EntityDeathEvent entityDeath() {
+		plugin.onEntityDeath(deathEvent);
+		return deathEvent;
+	}
+
+	@Benchmark
+	public long generateStatueId() {
+		return plugin.generateStatueId();
+	}
+
+	/**
+	 * Builds a death event with no drops. The constructor differs between API versions,
+	 * so the first public one is used with the entity, an empty drop list and default
+	 * values for everything else.
+	 */
+	private static EntityDeathEvent deathEvent(LivingEntity entity) throws Exception {
+		for (Constructor<?> constructor : EntityDeathEvent.class.getConstructors()) {
+			Class<?>[] parameterTypes = constructor.getParameterTypes();
+			Object[] args = new Object[parameterTypes.length];
+			for (int i = 0; i < parameterTypes.length; i++) {
+				if (parameterTypes[i] == LivingEntity.class) {
+					args[i] = entity;
+				} else if (parameterTypes[i] == List.class) {
+					args[i] = new ArrayList<>();
+				} else if (parameterTypes[i] == int.class) {
+					args[i] = 0;
+				}
+			}
+			return (EntityDeathEvent) constructor.newInstance(args);
+		}
+		throw new IllegalStateException("EntityDeathEvent has no public constructor.");
+	}
+}
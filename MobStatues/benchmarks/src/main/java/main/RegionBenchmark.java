@@ -0,0 +1,140 @@
+package main;
+
+import org.bukkit.entity.EntityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The shared statue structures under region-threaded access. editStatues hands a batch
+ * of statue edits to the stand-in region scheduler and waits for the region threads to
+ * finish them, so its time per batch shows how well the registry and chunk index scale
+ * with the number of region threads. The "contended" group runs entity and name lookups
+ * on three threads while a fourth keeps removing and re-adding statues, the pattern of
+ * entity events racing statue deletions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegionBenchmark {
+	private static final long SEED = 42L;
+	private static final int BATCH = 1024;
+	private static final double SPREAD = 4096.0;
+
+	@Param({ "1", "2", "4", "8" })
+	public int regionThreads;
+
+	@Param({ "10000" })
+	public int statueCount;
+
+	private StatueRegistry registry;
+	private StatueChunkIndex chunkIndex;
+	private StatueEntityIndex entityIndex;
+	private StandInRegionScheduler scheduler;
+	private UUID ownerId;
+	private String[] names;
+	private StatueData[] data;
+	private long[] entityMsbs;
+	private long[] entityLsbs;
+	private int next;
+
+	@Setup
+	public void setup() {
+		StandInServer.get();
+		Random random = new Random(SEED);
+		ownerId = new UUID(random.nextLong(), random.nextLong());
+		registry = new StatueRegistry();
+		chunkIndex = new StatueChunkIndex();
+		entityIndex = new StatueEntityIndex();
+		scheduler = new StandInRegionScheduler(regionThreads);
+		names = new String[statueCount];
+		data = new StatueData[statueCount];
+		entityMsbs = new long[statueCount];
+		entityLsbs = new long[statueCount];
+		for (int i = 0; i < statueCount; i++) {
+			names[i] = "statue" + i;
+			data[i] = new StatueData(StandInServer.WORLD_NAME, random.nextDouble() * SPREAD - SPREAD / 2.0, 64.0,
+					random.nextDouble() * SPREAD - SPREAD / 2.0, 0.0F, 0.0F, EntityType.ZOMBIE.name(), random.nextLong() | 1L);
+			entityMsbs[i] = random.nextLong();
+			entityLsbs[i] = random.nextLong();
+			Statue statue = registry.add(ownerId, names[i], EntityType.ZOMBIE, data[i]);
+			chunkIndex.add(statue);
+			entityIndex.put(entityMsbs[i], entityLsbs[i], statue);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		scheduler.close();
+	}
+
+	/**
+	 * Rotates a batch of statues, taking each out of the chunk index and putting it back
+	 * the way a move does, every edit on the region thread that owns the statue's chunk.
+	 */
+	@Benchmark
+	public int editStatues() {
+		for (int n = 0; n < BATCH; n++) {
+			int index = next;
+			next = index + 1 == statueCount ? 0 : index + 1;
+			Statue statue = registry.get(ownerId, names[index]);
+			long chunkKey = statue.chunkKey();
+			scheduler.runAt(null, StatueChunkIndex.chunkX(chunkKey), StatueChunkIndex.chunkZ(chunkKey), () -> {
+				StatueData current = statue.data();
+				if (current == null) return;
+				chunkIndex.remove(statue);
+				statue.setData(new StatueData(current.worldName(), current.x(), current.y(), current.z(),
+						current.yaw() + 1.0F, current.pitch(), current.entityType(), current.statueId()));
+				chunkIndex.add(statue);
+				entityIndex.get(entityMsbs[index], entityLsbs[index]);
+			});
+		}
+		scheduler.awaitRegions();
+		return registry.size();
+	}
+
+	@Benchmark
+	@Group("contended")
+	@GroupThreads(3)
+	public Statue lookup() {
+		int index = ThreadLocalRandom.current().nextInt(statueCount);
+		Statue statue = entityIndex.get(entityMsbs[index], entityLsbs[index]);
+		return statue != null ? statue : registry.get(ownerId, names[index]);
+	}
+
+	@Benchmark
+	@Group("contended")
+	@GroupThreads(1)
+	public Statue churn() {
+		int index = ThreadLocalRandom.current().nextInt(statueCount);
+		Statue statue = registry.get(ownerId, names[index]);
+		if (statue != null) {
+			entityIndex.remove(entityMsbs[index], entityLsbs[index]);
+			chunkIndex.remove(statue);
+			registry.remove(statue);
+		}
+		Statue replacement = registry.add(ownerId, names[index], EntityType.ZOMBIE, data[index]);
+		chunkIndex.add(replacement);
+		entityIndex.put(entityMsbs[index], entityLsbs[index], replacement);
+		return replacement;
+	}
+}
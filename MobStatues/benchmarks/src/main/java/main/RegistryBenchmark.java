@@ -0,0 +1,97 @@
+package main;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import org.bukkit.entity.EntityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statue registry lookups with one player owning every statue: by owner and name, by
+ * statue ID, counting a player's statues and collecting names for tab completion.
+ * These are the lookups that used to go through getOrCreatePlayerStatues and
+ * getPlayerStatues.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistryBenchmark {
+	private static final long SEED = 42L;
+
+	@Param({ "10", "100", "1000", "10000", "100000" })
+	public int statueCount;
+
+	private StatueRegistry registry;
+	private UUID ownerId;
+	private UUID strangerId;
+	private String[] names;
+	private long[] statueIds;
+	private final ObjectArrayList<String> completions = new ObjectArrayList<>();
+	private int next;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(SEED);
+		ownerId = new UUID(random.nextLong(), random.nextLong());
+		strangerId = new UUID(random.nextLong(), random.nextLong());
+		registry = new StatueRegistry();
+		names = new String[statueCount];
+		statueIds = new long[statueCount];
+		for (int i = 0; i < statueCount; i++) {
+			names[i] = "statue" + i;
+			statueIds[i] = random.nextLong() | 1L;
+			StatueData data = new StatueData(StandInServer.WORLD_NAME, random.nextDouble() * 4096.0 - 2048.0, 64.0,
+					random.nextDouble() * 4096.0 - 2048.0, random.nextFloat() * 360.0F, 0.0F, EntityType.ZOMBIE.name(), statueIds[i]);
+			registry.add(ownerId, names[i], EntityType.ZOMBIE, data);
+		}
+	}
+
+	private int nextIndex() {
+		int index = next;
+		next = index + 1 == statueCount ? 0 : index + 1;
+		return index;
+	}
+
+	@Benchmark
+	public Statue getHit() {
+		return registry.get(ownerId, names[nextIndex()]);
+	}
+
+	@Benchmark
+	public Statue getMiss() {
+		return registry.get(strangerId, names[nextIndex()]);
+	}
+
+	@Benchmark
+	public Statue byId() {
+		return registry.byId(statueIds[nextIndex()]);
+	}
+
+	@Benchmark
+	public int countOwnedBy() {
+		return registry.countOwnedBy(ownerId);
+	}
+
+	@Benchmark
+	public int collectNames() {
+		completions.clear();
+		registry.collectNames(ownerId, "statue1", completions);
+		return completions.size();
+	}
+}
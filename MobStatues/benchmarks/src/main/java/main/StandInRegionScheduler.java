@@ -0,0 +1,150 @@
+package main;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local multi-threaded stand-in for the schedulers of a region-threaded server.
+ * Chunks are grouped into square regions, and every region is pinned to one of a
+ * fixed number of single-threaded executors, so tasks for one region run in order on
+ * one thread while tasks for different regions run in parallel. Entity tasks run on
+ * the region of the entity's chunk, global tasks and timers on a thread of their own,
+ * and a tick is 50 ms of wall time.
+ */
+final class StandInRegionScheduler implements StatueScheduler, AutoCloseable {
+
+	/**
+	 * Regions are 8 by 8 chunks, as on Folia by default.
+	 */
+	private static final int REGION_SHIFT = 3;
+	private static final long TICK_MILLIS = 50L;
+
+	private final ExecutorService[] regions;
+	private final ScheduledExecutorService global;
+	private final ExecutorService async;
+	private final ThreadLocal<Integer> currentRegion = new ThreadLocal<>();
+	private volatile Thread globalThread;
+
+	/**
+	 * @param threads The number of region threads.
+	 */
+	StandInRegionScheduler(int threads) {
+		regions = new ExecutorService[Math.max(1, threads)];
+		for (int i = 0; i < regions.length; i++) {
+			int region = i;
+			regions[i] = Executors.newSingleThreadExecutor(task -> {
+				Thread thread = new Thread(() -> {
+					currentRegion.set(region);
+					task.run();
+				}, "Region Thread #" + region);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		global = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "Global Region Thread");
+			thread.setDaemon(true);
+			globalThread = thread;
+			return thread;
+		});
+		async = Executors.newCachedThreadPool(task -> {
+			Thread thread = new Thread(task, "Async Scheduler Thread");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * @param chunkX The chunk X coordinate.
+	 * @param chunkZ The chunk Z coordinate.
+	 * @return The index of the thread that owns the chunk.
+	 */
+	int regionOf(int chunkX, int chunkZ) {
+		long h = ((long) (chunkX >> REGION_SHIFT) << 32) ^ ((chunkZ >> REGION_SHIFT) & 0xFFFFFFFFL);
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		return (int) ((h & Long.MAX_VALUE) % regions.length);
+	}
+
+	@Override
+	public boolean regionThreaded() {
+		return true;
+	}
+
+	@Override
+	public void runAt(World world, int chunkX, int chunkZ, Runnable task) {
+		int region = regionOf(chunkX, chunkZ);
+		Integer current = currentRegion.get();
+		if (current != null && current == region) {
+			task.run();
+		} else {
+			regions[region].execute(task);
+		}
+	}
+
+	@Override
+	public void runFor(Entity entity, Runnable task) {
+		Location location = entity.getLocation();
+		runAt(location.getWorld(), location.getBlockX() >> 4, location.getBlockZ() >> 4, task);
+	}
+
+	@Override
+	public void runGlobal(Runnable task) {
+		if (Thread.currentThread() == globalThread) {
+			task.run();
+		} else {
+			global.execute(task);
+		}
+	}
+
+	@Override
+	public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+		ScheduledFuture<?> future = global.scheduleAtFixedRate(task, Math.max(1L, delayTicks) * TICK_MILLIS,
+				Math.max(1L, periodTicks) * TICK_MILLIS, TimeUnit.MILLISECONDS);
+		return () -> future.cancel(false);
+	}
+
+	@Override
+	public void runAsync(Runnable task) {
+		async.execute(task);
+	}
+
+	/**
+	 * Waits until every region thread has run all tasks submitted before the call.
+	 * Tasks that submit further region tasks are not waited for.
+	 */
+	void awaitRegions() {
+		Future<?>[] barriers = new Future<?>[regions.length];
+		for (int i = 0; i < regions.length; i++) {
+			barriers[i] = regions[i].submit(() -> { });
+		}
+		try {
+			for (Future<?> barrier : barriers) {
+				barrier.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	@Override
+	public void close() {
+		for (ExecutorService region : regions) {
+			region.shutdownNow();
+		}
+		global.shutdownNow();
+		async.shutdownNow();
+	}
+}
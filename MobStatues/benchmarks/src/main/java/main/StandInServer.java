@@ -0,0 +1,299 @@
+package main;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A minimal in-process stand-in for the Bukkit server, used to run the plugin in the
+ * benchmarks. Server objects are dynamic proxies: the methods the plugin relies on are
+ * answered explicitly and every other method returns null, zero or false. Scheduled
+ * tasks are collected and only run when {@link #tick()} is called, so nothing runs
+ * behind a benchmark's back.
+ *
+ * <p>Bukkit only accepts one server per JVM, so the stand-in is a singleton; plugins
+ * can be started and stopped on it repeatedly. Entity UUIDs come from a generator that
+ * is reseeded on every plugin start, so runs are repeatable.
+ */
+final class StandInServer {
+	static final String WORLD_NAME = "world";
+
+	private static final long ENTITY_SEED = 0x5EED_0001L;
+
+	private static StandInServer instance;
+
+	private final Logger logger = Logger.getLogger("StandInServer");
+	private final ObjectArrayList<Runnable> timers = new ObjectArrayList<>();
+	private final ObjectArrayList<Runnable> pendingTasks = new ObjectArrayList<>();
+	private final Object2ObjectOpenHashMap<String, PluginCommand> commands = new Object2ObjectOpenHashMap<>();
+	private final Random entityIds = new Random(ENTITY_SEED);
+	private final PersistentDataContainer dataContainer;
+	private final Server server;
+	private final World world;
+	private int spawnedStatues;
+
+	private StandInServer() {
+		logger.setLevel(Level.WARNING);
+		dataContainer = proxy(PersistentDataContainer.class, Map.of());
+		PluginManager pluginManager = proxy(PluginManager.class, Map.of());
+		BukkitScheduler scheduler = proxy(BukkitScheduler.class, Map.of(
+				"runTaskTimer", args -> {
+					Runnable task = (Runnable) args[1];
+					timers.add(task);
+					return proxy(BukkitTask.class, Map.of("cancel", cancelArgs -> timers.remove(task)));
+				},
+				"runTask", args -> {
+					pendingTasks.add((Runnable) args[1]);
+					return proxy(BukkitTask.class, Map.of());
+				}));
+		world = proxy(World.class, Map.of(
+				"getName", args -> WORLD_NAME,
+				"isChunkLoaded", args -> true,
+				"spawnEntity", args -> {
+					spawnedStatues++;
+					return entity(LivingEntity.class, (Location) args[0], (EntityType) args[1]);
+				},
+				"spawn", args -> entity((Class<?>) args[1], (Location) args[0], EntityType.ARMOR_STAND)));
+		server = proxy(Server.class, Map.of(
+				"getLogger", args -> logger,
+				"getName", args -> "StandInServer",
+				"getVersion", args -> "benchmark",
+				"getBukkitVersion", args -> "benchmark",
+				"getPluginManager", args -> pluginManager,
+				"getScheduler", args -> scheduler,
+				"getWorld", args -> WORLD_NAME.equals(args[0]) ? world : null,
+				"getPluginCommand", args -> commands.get(args[0]),
+				"isPrimaryThread", args -> true));
+		Bukkit.setServer(server);
+	}
+
+	/**
+	 * @return The stand-in server, installed as the Bukkit server on first use.
+	 */
+	static synchronized StandInServer get() {
+		if (instance == null) {
+			instance = new StandInServer();
+		}
+		return instance;
+	}
+
+	World world() {
+		return world;
+	}
+
+	/**
+	 * @return The number of statue entities spawned since the last plugin start.
+	 */
+	int spawnedStatues() {
+		return spawnedStatues;
+	}
+
+	/**
+	 * Creates and enables the plugin with its bundled plugin.yml and config.yml. The
+	 * configuration is written into the data folder with background saving pushed out
+	 * of the benchmark's way, culling and density limits disabled and an unlimited
+	 * spawn budget.
+	 * @param dataFolder An empty folder for the plugin's files.
+	 * @return The enabled plugin.
+	 * @throws Exception If the plugin cannot be created.
+	 */
+	MobStatues startPlugin(File dataFolder) throws Exception {
+		dataFolder.mkdirs();
+		YamlConfiguration config;
+		try (InputStream in = StandInServer.class.getResourceAsStream("/config.yml")) {
+			config = YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+		}
+		config.set("persistence.flush-interval-seconds", 3600);
+		config.set("culling.enabled", false);
+		config.set("limits.per-chunk", 0);
+		config.set("spawning.tick-budget-millis", 1000.0);
+		config.set("metrics.file-interval-seconds", 0);
+		config.save(new File(dataFolder, "config.yml"));
+
+		PluginDescriptionFile description;
+		try (InputStream in = StandInServer.class.getResourceAsStream("/plugin.yml")) {
+			description = new PluginDescriptionFile(in);
+		}
+		@SuppressWarnings("deprecation")
+		JavaPluginLoader loader = new JavaPluginLoader(server);
+		MobStatues plugin = new MobStatues(loader, description, dataFolder, new File(dataFolder, "MobStatues.jar"));
+
+		commands.clear();
+		Constructor<PluginCommand> commandConstructor = PluginCommand.class.getDeclaredConstructor(String.class, Plugin.class);
+		commandConstructor.setAccessible(true);
+		for (String name : description.getCommands().keySet()) {
+			commands.put(name.toLowerCase(), commandConstructor.newInstance(name, plugin));
+		}
+		timers.clear();
+		pendingTasks.clear();
+		spawnedStatues = 0;
+		entityIds.setSeed(ENTITY_SEED);
+		setEnabled(plugin, true);
+		tick();
+		return plugin;
+	}
+
+	/**
+	 * Disables a plugin started by {@link #startPlugin(File)}.
+	 * @param plugin The plugin.
+	 * @throws Exception If the plugin cannot be disabled.
+	 */
+	void stopPlugin(MobStatues plugin) throws Exception {
+		setEnabled(plugin, false);
+		timers.clear();
+		pendingTasks.clear();
+	}
+
+	/**
+	 * Runs one server tick: every task handed to runTask, then every repeating task.
+	 */
+	void tick() {
+		ObjectArrayList<Runnable> tasks = new ObjectArrayList<>(pendingTasks);
+		pendingTasks.clear();
+		for (Runnable task : tasks) {
+			task.run();
+		}
+		for (Runnable timer : new ObjectArrayList<>(timers)) {
+			timer.run();
+		}
+	}
+
+	/**
+	 * @param name The command name from plugin.yml.
+	 * @return The command registered for the running plugin.
+	 */
+	PluginCommand command(String name) {
+		return commands.get(name);
+	}
+
+	/**
+	 * Creates a player standing at a location. The player has every permission.
+	 * @param playerId The player's UUID.
+	 * @param location The player's location, which may be changed later.
+	 * @return The player.
+	 */
+	Player player(UUID playerId, Location location) {
+		return proxy(Player.class, Map.of(
+				"getUniqueId", args -> playerId,
+				"getName", args -> playerId.toString().substring(0, 8),
+				"getLocation", args -> location.clone(),
+				"getWorld", args -> world,
+				"hasPermission", args -> true,
+				"isOp", args -> true,
+				"isOnline", args -> true));
+	}
+
+	/**
+	 * Creates a live entity that is not a statue.
+	 * @param type The entity type.
+	 * @param location The entity's location.
+	 * @return The entity.
+	 */
+	LivingEntity livingEntity(EntityType type, Location location) {
+		return entity(LivingEntity.class, location, type);
+	}
+
+	private <T> T entity(Class<T> entityClass, Location location, EntityType type) {
+		UUID entityId = new UUID(entityIds.nextLong(), entityIds.nextLong());
+		return proxy(entityClass, Map.of(
+				"getUniqueId", args -> entityId,
+				"getType", args -> type,
+				"getLocation", args -> location.clone(),
+				"getWorld", args -> world,
+				"getPersistentDataContainer", args -> dataContainer,
+				"getPassengers", args -> new ArrayList<>(),
+				"isValid", args -> true));
+	}
+
+	/**
+	 * Deletes a folder and everything in it.
+	 * @param folder The folder; nothing happens if it does not exist.
+	 * @throws IOException If a file cannot be deleted.
+	 */
+	static void deleteFolder(File folder) throws IOException {
+		if (!folder.exists()) return;
+		try (var paths = Files.walk(folder.toPath())) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	private static void setEnabled(JavaPlugin plugin, boolean enabled) throws Exception {
+		Method setEnabled = JavaPlugin.class.getDeclaredMethod("setEnabled", boolean.class);
+		setEnabled.setAccessible(true);
+		setEnabled.invoke(plugin, enabled);
+	}
+
+	/**
+	 * Creates a proxy that answers the named methods and returns a default value from
+	 * every other method.
+	 */
+	private static <T> T proxy(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+		Object proxy = Proxy.newProxyInstance(StandInServer.class.getClassLoader(), new Class<?>[] { type }, (self, method, args) -> {
+			Function<Object[], Object> answer = answers.get(method.getName());
+			if (answer != null) {
+				return answer.apply(args);
+			}
+			switch (method.getName()) {
+				case "hashCode":
+					return System.identityHashCode(self);
+				case "equals":
+					return self == args[0];
+				case "toString":
+					return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(self));
+				default:
+					return defaultValue(method.getReturnType());
+			}
+		});
+		return type.cast(proxy);
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (!type.isPrimitive() || type == void.class) return null;
+		if (type == boolean.class) return false;
+		if (type == char.class) return '\0';
+		if (type == byte.class) return (byte) 0;
+		if (type == short.class) return (short) 0;
+		if (type == int.class) return 0;
+		if (type == long.class) return 0L;
+		if (type == float.class) return 0.0F;
+		return 0.0;
+	}
+}
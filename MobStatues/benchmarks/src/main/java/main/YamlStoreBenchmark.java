@@ -0,0 +1,86 @@
+package main;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+
+import org.bukkit.entity.EntityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving and loading one player's YAML file holding every statue. Each save writes a
+ * new file, as the first save of a player's statues does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class YamlStoreBenchmark {
+	private static final long SEED = 42L;
+
+	@Param({ "10", "100", "1000", "10000", "100000" })
+	public int statueCount;
+
+	private File folder;
+	private UUID ownerId;
+	private Object2ObjectOpenHashMap<String, StatueData> statues;
+	private YamlStatueStore saveStore;
+	private File saveFile;
+	private YamlStatueStore loadStore;
+
+	@Setup
+	public void setup() throws IOException {
+		Random random = new Random(SEED);
+		ownerId = new UUID(random.nextLong(), random.nextLong());
+		statues = new Object2ObjectOpenHashMap<>(statueCount);
+		for (int i = 0; i < statueCount; i++) {
+			statues.put("statue" + i, new StatueData(StandInServer.WORLD_NAME, random.nextDouble() * 4096.0 - 2048.0, 64.0,
+					random.nextDouble() * 4096.0 - 2048.0, random.nextFloat() * 360.0F, 0.0F, EntityType.ZOMBIE.name(), random.nextLong() | 1L));
+		}
+		folder = Files.createTempDirectory("mobstatues-bench").toFile();
+		File saveFolder = new File(folder, "save");
+		saveStore = new YamlStatueStore(saveFolder);
+		saveFile = new File(saveFolder, ownerId + ".yml");
+		loadStore = new YamlStatueStore(new File(folder, "load"));
+		loadStore.write(ownerId, statues);
+	}
+
+	@Setup(Level.Invocation)
+	public void deleteSavedFile() {
+		saveFile.delete();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		StandInServer.deleteFolder(folder);
+	}
+
+	@Benchmark
+	public long save() throws IOException {
+		return saveStore.write(ownerId, statues);
+	}
+
+	@Benchmark
+	public Object loadAll() throws IOException {
+		return loadStore.loadAll();
+	}
+}
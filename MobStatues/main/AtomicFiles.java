@@ -0,0 +1,50 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces files so that readers, and the plugin after a crash, only ever see the old
+ * or the new contents and never a truncated file.
+ */
+final class AtomicFiles {
+
+	private AtomicFiles() {
+	}
+
+	/**
+	 * Writes text to a temporary file next to the target, syncs it to disk and renames
+	 * it over the target. A temporary file left behind by a crash is overwritten by the
+	 * next replace.
+	 * @param file The file to replace.
+	 * @param text The new contents.
+	 * @return The number of bytes written.
+	 * @throws IOException If the file cannot be written.
+	 */
+	static long replace(File file, String text) throws IOException {
+		Path target = file.toPath();
+		Path temporary = target.resolveSibling(file.getName() + ".tmp");
+		ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+		long length = bytes.remaining();
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+			channel.force(true);
+		}
+		try {
+			Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+		return length;
+	}
+}
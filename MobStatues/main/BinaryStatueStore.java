@@ -0,0 +1,354 @@
+package main;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A compact single-file statue store. The file is memory-mapped and consists of a
+ * small header, a dictionary of interned world and entity type names, and an array
+ * of fixed-width statue records that are updated in place.
+ *
+ * <pre>
+ * header      0..63     magic, version, record size, record count, dictionary size
+ * dictionary  64..16383 255 entries of (length byte, up to 63 UTF-8 bytes)
+ * records     16384..   RECORD_SIZE bytes each, see the RECORD_* offsets
+ * </pre>
+ *
+ * The (owner, name) to record index is rebuilt in memory when the file is opened,
+ * which is a single sequential pass over the mapped records.
+ */
+final class BinaryStatueStore implements StatueStore {
+	private static final int MAGIC = 0x4D535442; // "MSTB"
+	private static final int VERSION = 2;
+
+	/**
+	 * The first version, which stored statue IDs as 16 ASCII characters. Such files are
+	 * converted in place when opened.
+	 */
+	private static final int VERSION_STRING_IDS = 1;
+
+	private static final int HEADER_MAGIC = 0;
+	private static final int HEADER_VERSION = 4;
+	private static final int HEADER_RECORD_SIZE = 8;
+	private static final int HEADER_RECORD_COUNT = 12;
+	private static final int HEADER_DICTIONARY_SIZE = 16;
+
+	private static final int DICTIONARY_OFFSET = 64;
+	private static final int DICTIONARY_ENTRY_SIZE = 64;
+	private static final int DICTIONARY_CAPACITY = 255;
+	private static final int RECORDS_OFFSET = DICTIONARY_OFFSET + DICTIONARY_ENTRY_SIZE * DICTIONARY_CAPACITY;
+
+	private static final int RECORD_SIZE = 128;
+	private static final int RECORD_FLAGS = 0;
+	private static final int RECORD_NAME_LENGTH = 1;
+	private static final int RECORD_WORLD = 2;
+	private static final int RECORD_TYPE = 4;
+	private static final int RECORD_OWNER_MSB = 8;
+	private static final int RECORD_OWNER_LSB = 16;
+	private static final int RECORD_X = 24;
+	private static final int RECORD_Y = 32;
+	private static final int RECORD_Z = 40;
+	private static final int RECORD_YAW = 48;
+	private static final int RECORD_PITCH = 52;
+	private static final int RECORD_ID = 56;
+	private static final int RECORD_NAME = 72;
+
+	/**
+	 * The width of the ID field in version 1 files; version 2 stores a long in its
+	 * first eight bytes and leaves the rest unused.
+	 */
+	private static final int LEGACY_ID_BYTES = RECORD_NAME - RECORD_ID;
+
+	/**
+	 * The longest statue name, in UTF-8 bytes, that fits in a record.
+	 */
+	static final int MAX_NAME_BYTES = RECORD_SIZE - RECORD_NAME;
+
+	private static final byte FLAG_LIVE = 1;
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final File file;
+	private FileChannel channel;
+	private MappedByteBuffer buffer;
+	private int capacity;
+	private int recordCount;
+
+	/**
+	 * Interned world and entity type names, by dictionary index and by value.
+	 */
+	private final ObjectArrayList<String> dictionary = new ObjectArrayList<>();
+	private final Object2IntOpenHashMap<String> dictionaryIndex = new Object2IntOpenHashMap<>();
+
+	/**
+	 * Record slot by owner, then by statue name.
+	 */
+	private final Object2ObjectOpenHashMap<UUID, Object2IntOpenHashMap<String>> index = new Object2ObjectOpenHashMap<>();
+
+	/**
+	 * Slots of removed records below recordCount, reused before the file is grown.
+	 */
+	private final IntArrayList freeSlots = new IntArrayList();
+
+	BinaryStatueStore(File file) {
+		this.file = file;
+		dictionaryIndex.defaultReturnValue(-1);
+	}
+
+	/**
+	 * Opens or creates the store file and rebuilds the in-memory index. Version 1 files
+	 * have their string statue IDs cleared, so numeric IDs are assigned when they load.
+	 * @return True if the file did not exist and was created empty.
+	 * @throws IOException If the file cannot be opened or is not a valid store.
+	 */
+	boolean open() throws IOException {
+		boolean created = !file.exists();
+		File parent = file.getParentFile();
+		if (parent != null && !parent.exists()) {
+			parent.mkdirs();
+		}
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		if (created || channel.size() < RECORDS_OFFSET) {
+			map(INITIAL_CAPACITY);
+			buffer.putInt(HEADER_MAGIC, MAGIC);
+			buffer.putInt(HEADER_VERSION, VERSION);
+			buffer.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+			buffer.putInt(HEADER_RECORD_COUNT, 0);
+			buffer.putInt(HEADER_DICTIONARY_SIZE, 0);
+			return true;
+		}
+		map((int) ((channel.size() - RECORDS_OFFSET) / RECORD_SIZE));
+		int version = buffer.getInt(HEADER_VERSION);
+		if (buffer.getInt(HEADER_MAGIC) != MAGIC || (version != VERSION && version != VERSION_STRING_IDS)
+				|| buffer.getInt(HEADER_RECORD_SIZE) != RECORD_SIZE) {
+			throw new IOException("Not a MobStatues binary store: " + file.getName());
+		}
+		int dictionarySize = buffer.getInt(HEADER_DICTIONARY_SIZE);
+		for (int i = 0; i < dictionarySize; i++) {
+			String value = readString(DICTIONARY_OFFSET + i * DICTIONARY_ENTRY_SIZE + 1, buffer.get(DICTIONARY_OFFSET + i * DICTIONARY_ENTRY_SIZE) & 0xFF);
+			dictionary.add(value);
+			dictionaryIndex.put(value, i);
+		}
+		recordCount = buffer.getInt(HEADER_RECORD_COUNT);
+		for (int slot = 0; slot < recordCount; slot++) {
+			int base = recordOffset(slot);
+			if (buffer.get(base + RECORD_FLAGS) != FLAG_LIVE) {
+				freeSlots.add(slot);
+				continue;
+			}
+			UUID owner = new UUID(buffer.getLong(base + RECORD_OWNER_MSB), buffer.getLong(base + RECORD_OWNER_LSB));
+			String name = readString(base + RECORD_NAME, buffer.get(base + RECORD_NAME_LENGTH) & 0xFF);
+			playerIndex(owner).put(name, slot);
+			if (version == VERSION_STRING_IDS) {
+				writeBytes(base + RECORD_ID, LEGACY_ID_BYTES, new byte[0]);
+			}
+		}
+		if (version == VERSION_STRING_IDS) {
+			buffer.putInt(HEADER_VERSION, VERSION);
+			buffer.force();
+		}
+		return false;
+	}
+
+	@Override
+	public synchronized Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>> loadAll() {
+		Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>> result = new Object2ObjectOpenHashMap<>();
+		for (Map.Entry<UUID, Object2IntOpenHashMap<String>> owner : index.entrySet()) {
+			Object2ObjectOpenHashMap<String, StatueData> playerStatues = new Object2ObjectOpenHashMap<>(owner.getValue().size());
+			for (Object2IntOpenHashMap.Entry<String> statue : owner.getValue().object2IntEntrySet()) {
+				playerStatues.put(statue.getKey(), readRecord(statue.getIntValue()));
+			}
+			result.put(owner.getKey(), playerStatues);
+		}
+		return result;
+	}
+
+	@Override
+	public synchronized long write(UUID playerId, Object2ObjectOpenHashMap<String, StatueData> changes) throws IOException {
+		long written = 0;
+		for (Map.Entry<String, StatueData> change : changes.entrySet()) {
+			String statueName = change.getKey();
+			StatueData data = change.getValue();
+			Object2IntOpenHashMap<String> playerStatues = index.get(playerId);
+			int slot = playerStatues != null ? playerStatues.getInt(statueName) : -1;
+			if (data == null) {
+				if (slot >= 0) {
+					buffer.put(recordOffset(slot) + RECORD_FLAGS, (byte) 0);
+					playerStatues.removeInt(statueName);
+					if (playerStatues.isEmpty()) {
+						index.remove(playerId);
+					}
+					freeSlots.add(slot);
+					written++;
+				}
+				continue;
+			}
+			byte[] nameBytes = statueName.getBytes(StandardCharsets.UTF_8);
+			if (nameBytes.length > MAX_NAME_BYTES) {
+				throw new IOException("Statue name '" + statueName + "' is too long for the binary store.");
+			}
+			int world = intern(data.worldName());
+			int type = intern(data.entityType());
+			if (slot < 0) {
+				slot = allocateSlot();
+				playerIndex(playerId).put(statueName, slot);
+			}
+			int base = recordOffset(slot);
+			buffer.put(base + RECORD_NAME_LENGTH, (byte) nameBytes.length);
+			buffer.putShort(base + RECORD_WORLD, (short) world);
+			buffer.putShort(base + RECORD_TYPE, (short) type);
+			buffer.putLong(base + RECORD_OWNER_MSB, playerId.getMostSignificantBits());
+			buffer.putLong(base + RECORD_OWNER_LSB, playerId.getLeastSignificantBits());
+			buffer.putDouble(base + RECORD_X, data.x());
+			buffer.putDouble(base + RECORD_Y, data.y());
+			buffer.putDouble(base + RECORD_Z, data.z());
+			buffer.putFloat(base + RECORD_YAW, data.yaw());
+			buffer.putFloat(base + RECORD_PITCH, data.pitch());
+			buffer.putLong(base + RECORD_ID, data.statueId());
+			writeBytes(base + RECORD_NAME, MAX_NAME_BYTES, nameBytes);
+			buffer.put(base + RECORD_FLAGS, FLAG_LIVE);
+			written += RECORD_SIZE;
+		}
+		return written;
+	}
+
+	@Override
+	public synchronized void sync() {
+		buffer.force();
+	}
+
+	@Override
+	public boolean supportsName(String statueName) {
+		return statueName.getBytes(StandardCharsets.UTF_8).length <= MAX_NAME_BYTES;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (channel != null) {
+			buffer.force();
+			channel.close();
+			channel = null;
+			buffer = null;
+		}
+	}
+
+	/**
+	 * Copies every statue from a YAML store into this store in one pass.
+	 * @param source The YAML store to migrate from.
+	 * @return The number of statues migrated.
+	 * @throws IOException If the statues cannot be written.
+	 */
+	int migrateFrom(YamlStatueStore source) throws IOException {
+		int migrated = 0;
+		for (Map.Entry<UUID, Object2ObjectOpenHashMap<String, StatueData>> entry : source.loadAll().entrySet()) {
+			write(entry.getKey(), entry.getValue());
+			migrated += entry.getValue().size();
+		}
+		sync();
+		return migrated;
+	}
+
+	/**
+	 * Decodes the statue stored in a slot.
+	 * @param slot The record slot.
+	 * @return The statue data.
+	 */
+	private StatueData readRecord(int slot) {
+		int base = recordOffset(slot);
+		return new StatueData(dictionary.get(buffer.getShort(base + RECORD_WORLD)), buffer.getDouble(base + RECORD_X),
+				buffer.getDouble(base + RECORD_Y), buffer.getDouble(base + RECORD_Z), buffer.getFloat(base + RECORD_YAW),
+				buffer.getFloat(base + RECORD_PITCH), dictionary.get(buffer.getShort(base + RECORD_TYPE)), buffer.getLong(base + RECORD_ID));
+	}
+
+	/**
+	 * Returns the dictionary index of a string, adding it to the dictionary if needed.
+	 * @param value The world or entity type name.
+	 * @return The dictionary index.
+	 * @throws IOException If the dictionary is full or the value is too long.
+	 */
+	private int intern(String value) throws IOException {
+		int existing = dictionaryIndex.getInt(value);
+		if (existing >= 0) {
+			return existing;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length >= DICTIONARY_ENTRY_SIZE) {
+			throw new IOException("Name '" + value + "' is too long for the binary store dictionary.");
+		}
+		if (dictionary.size() >= DICTIONARY_CAPACITY) {
+			throw new IOException("The binary store dictionary is full.");
+		}
+		int id = dictionary.size();
+		int base = DICTIONARY_OFFSET + id * DICTIONARY_ENTRY_SIZE;
+		buffer.put(base, (byte) bytes.length);
+		writeBytes(base + 1, DICTIONARY_ENTRY_SIZE - 1, bytes);
+		dictionary.add(value);
+		dictionaryIndex.put(value, id);
+		buffer.putInt(HEADER_DICTIONARY_SIZE, dictionary.size());
+		return id;
+	}
+
+	/**
+	 * Finds a slot for a new record, reusing removed slots first and growing the
+	 * mapping when the file is full.
+	 * @return The slot to write into.
+	 * @throws IOException If the file cannot be grown.
+	 */
+	private int allocateSlot() throws IOException {
+		if (!freeSlots.isEmpty()) {
+			return freeSlots.removeInt(freeSlots.size() - 1);
+		}
+		if (recordCount == capacity) {
+			map(capacity * 2);
+		}
+		int slot = recordCount++;
+		buffer.putInt(HEADER_RECORD_COUNT, recordCount);
+		return slot;
+	}
+
+	/**
+	 * Maps the file with room for the given number of records.
+	 * @param records The record capacity to map.
+	 * @throws IOException If the file cannot be mapped.
+	 */
+	private void map(int records) throws IOException {
+		capacity = Math.max(records, INITIAL_CAPACITY);
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, RECORDS_OFFSET + (long) capacity * RECORD_SIZE);
+	}
+
+	private Object2IntOpenHashMap<String> playerIndex(UUID playerId) {
+		return index.computeIfAbsent(playerId, k -> {
+			Object2IntOpenHashMap<String> map = new Object2IntOpenHashMap<>();
+			map.defaultReturnValue(-1);
+			return map;
+		});
+	}
+
+	private static int recordOffset(int slot) {
+		return RECORDS_OFFSET + slot * RECORD_SIZE;
+	}
+
+	private String readString(int offset, int length) {
+		byte[] bytes = new byte[length];
+		buffer.get(offset, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private void writeBytes(int offset, int width, byte[] bytes) {
+		int length = Math.min(bytes.length, width);
+		buffer.put(offset, bytes, 0, length);
+		for (int i = length; i < width; i++) {
+			buffer.put(offset + i, (byte) 0);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package main;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * The single-threaded scheduler for Spigot and Paper: all region and entity work runs
+ * on the server thread, directly when already on it.
+ */
+final class BukkitStatueScheduler implements StatueScheduler {
+	private final Plugin plugin;
+
+	BukkitStatueScheduler(Plugin plugin) {
+		this.plugin = plugin;
+	}
+
+	@Override
+	public boolean regionThreaded() {
+		return false;
+	}
+
+	@Override
+	public void runAt(World world, int chunkX, int chunkZ, Runnable task) {
+		runGlobal(task);
+	}
+
+	@Override
+	public void runFor(Entity entity, Runnable task) {
+		runGlobal(task);
+	}
+
+	@Override
+	public void runGlobal(Runnable task) {
+		if (Bukkit.isPrimaryThread()) {
+			task.run();
+		} else {
+			Bukkit.getScheduler().runTask(plugin, task);
+		}
+	}
+
+	@Override
+	public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+		BukkitTask bukkitTask = Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks);
+		return bukkitTask::cancel;
+	}
+
+	@Override
+	public void runAsync(Runnable task) {
+		Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+	}
+}
@@ -0,0 +1,326 @@
+package main;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Puts an append-only journal in front of a snapshot store. Each statue change is
+ * appended as one small checksummed record, and the journal is synced once per batch.
+ * Changes reach the snapshot store only when the journal is compacted: when it grows
+ * past a threshold, before statues are loaded, and when the store is closed. A crash
+ * loses nothing that was synced; the next start replays the journal on top of the
+ * snapshot, discarding a torn record at the end.
+ *
+ * <p>File layout, big-endian:
+ * <pre>
+ * header   0..8   magic "MSJL", version
+ * records  8..    op (1), payload length (2), payload, CRC32 of op, length and payload (4)
+ * </pre>
+ * A put payload holds the owner UUID, statue name, world, entity type, position,
+ * rotation and statue ID; a remove payload holds the owner UUID and statue name.
+ * Strings are UTF-8 with a two-byte length.
+ */
+final class JournaledStatueStore implements StatueStore {
+	private static final int MAGIC = 0x4D534A4C; // "MSJL"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 8;
+	private static final int RECORD_OVERHEAD = 7;
+	private static final byte OP_PUT = 1;
+	private static final byte OP_REMOVE = 2;
+
+	private final StatueStore snapshot;
+	private final File file;
+	private final long compactBytes;
+	private final Logger logger;
+	private final CRC32 crc = new CRC32();
+	private FileChannel channel;
+	private long size;
+
+	/**
+	 * Set while a partly written batch may still lie past {@link #size}; cleared once it
+	 * has been cut off.
+	 */
+	private boolean torn;
+	private ByteBuffer out = ByteBuffer.allocate(4096);
+
+	/**
+	 * The changes in the journal that the snapshot does not have yet, merged per statue.
+	 */
+	private Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>> unapplied = new Object2ObjectOpenHashMap<>();
+
+	/**
+	 * @param snapshot The store holding the last compacted state.
+	 * @param file The journal file.
+	 * @param compactBytes The journal size that triggers a compaction after a batch.
+	 * @param logger The logger to report replays and compactions to.
+	 */
+	JournaledStatueStore(StatueStore snapshot, File file, long compactBytes, Logger logger) {
+		this.snapshot = snapshot;
+		this.file = file;
+		this.compactBytes = Math.max(HEADER_SIZE, compactBytes);
+		this.logger = logger;
+	}
+
+	/**
+	 * Opens the journal, creating it if needed, and reads the changes it holds. They are
+	 * applied to the snapshot by the first load or compaction.
+	 * @throws IOException If the file cannot be opened or is not a statue journal.
+	 */
+	synchronized void open() throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			if (channel.size() < HEADER_SIZE) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+				channel.truncate(0);
+				channel.write(header, 0);
+				channel.force(false);
+				size = HEADER_SIZE;
+			} else {
+				replay();
+			}
+			channel.position(size);
+		} catch (IOException e) {
+			channel.close();
+			channel = null;
+			throw e;
+		}
+	}
+
+	/**
+	 * Applies the journal to the snapshot, then loads from the snapshot.
+	 */
+	@Override
+	public Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>> loadAll() throws IOException {
+		synchronized (this) {
+			compact();
+		}
+		return snapshot.loadAll();
+	}
+
+	/**
+	 * Applies the journal to the snapshot, then splits loading the way the snapshot does.
+	 */
+	@Override
+	public ObjectList<Callable<Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>>>> loadParts() throws IOException {
+		synchronized (this) {
+			compact();
+		}
+		return snapshot.loadParts();
+	}
+
+	@Override
+	public synchronized long write(UUID playerId, Object2ObjectOpenHashMap<String, StatueData> changes) throws IOException {
+		if (torn) {
+			cutTornWrite();
+		}
+		out.clear();
+		for (Map.Entry<String, StatueData> change : changes.entrySet()) {
+			encode(playerId, change.getKey(), change.getValue());
+		}
+		out.flip();
+		long written = out.remaining();
+		try {
+			while (out.hasRemaining()) {
+				channel.write(out);
+			}
+		} catch (IOException e) {
+			torn = true;
+			try {
+				cutTornWrite();
+			} catch (IOException cutError) {
+				e.addSuppressed(cutError);
+			}
+			throw e;
+		}
+		size += written;
+		unapplied.computeIfAbsent(playerId, k -> new Object2ObjectOpenHashMap<>()).putAll(changes);
+		return written;
+	}
+
+	/**
+	 * Cuts a partly written batch off the end of the journal, so the next batch is
+	 * appended right after the last complete record rather than after torn bytes, which
+	 * would stop replay before it. If this fails, the next write tries again first.
+	 * @throws IOException If the journal cannot be truncated.
+	 */
+	private void cutTornWrite() throws IOException {
+		channel.truncate(size);
+		channel.position(size);
+		torn = false;
+	}
+
+	/**
+	 * Syncs the records appended since the last batch, then compacts the journal if it
+	 * has grown past the threshold.
+	 */
+	@Override
+	public synchronized void sync() throws IOException {
+		channel.force(false);
+		if (size >= compactBytes) {
+			compact();
+		}
+	}
+
+	@Override
+	public boolean supportsName(String statueName) {
+		return snapshot.supportsName(statueName);
+	}
+
+	/**
+	 * Compacts the journal into the snapshot and closes both.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (channel == null) return;
+		try {
+			compact();
+		} finally {
+			channel.close();
+			channel = null;
+			snapshot.close();
+		}
+	}
+
+	/**
+	 * Writes every unapplied change to the snapshot, syncs it, and only then empties the
+	 * journal. A crash in between replays changes the snapshot already has, which is
+	 * harmless because every record holds a statue's complete state.
+	 */
+	private void compact() throws IOException {
+		if (size == HEADER_SIZE) return;
+		long start = System.nanoTime();
+		long journalBytes = size;
+		int statues = 0;
+		for (Map.Entry<UUID, Object2ObjectOpenHashMap<String, StatueData>> entry : unapplied.entrySet()) {
+			snapshot.write(entry.getKey(), entry.getValue());
+			statues += entry.getValue().size();
+		}
+		snapshot.sync();
+		channel.truncate(HEADER_SIZE);
+		channel.force(false);
+		channel.position(HEADER_SIZE);
+		size = HEADER_SIZE;
+		int players = unapplied.size();
+		unapplied = new Object2ObjectOpenHashMap<>();
+		logger.info("Compacted the statue journal (" + journalBytes / 1024L + " KB) into " + statues + " statue changes for "
+				+ players + " players in " + (System.nanoTime() - start) / 1_000_000L + " ms.");
+	}
+
+	/**
+	 * Reads every intact record into the unapplied changes. Reading stops at the first
+	 * incomplete or corrupt record, which is cut off so new records follow the last good one.
+	 */
+	private void replay() throws IOException {
+		long length = channel.size();
+		if (length > Integer.MAX_VALUE) {
+			throw new IOException("The statue journal is too large to replay.");
+		}
+		ByteBuffer in = ByteBuffer.allocate((int) length);
+		while (in.hasRemaining() && channel.read(in, in.position()) >= 0) {
+		}
+		in.flip();
+		if (in.getInt(0) != MAGIC || in.getInt(4) != VERSION) {
+			throw new IOException("Not a statue journal: " + file.getName());
+		}
+		in.position(HEADER_SIZE);
+		int records = 0;
+		int end = HEADER_SIZE;
+		while (in.remaining() >= RECORD_OVERHEAD) {
+			int recordStart = in.position();
+			byte op = in.get();
+			int payloadLength = Short.toUnsignedInt(in.getShort());
+			if (in.remaining() < payloadLength + 4) break;
+			crc.reset();
+			crc.update(in.array(), recordStart, 3 + payloadLength);
+			if ((int) crc.getValue() != in.getInt(recordStart + 3 + payloadLength)) break;
+			if (!decode(op, in.slice(recordStart + 3, payloadLength))) break;
+			end = recordStart + 3 + payloadLength + 4;
+			in.position(end);
+			records++;
+		}
+		size = end;
+		if (size < length) {
+			logger.warning("Discarded " + (length - size) + " bytes of incomplete or corrupt records at the end of the statue journal.");
+			channel.truncate(size);
+			channel.force(false);
+		}
+		if (records > 0) {
+			logger.info("Replaying " + records + " statue journal records.");
+		}
+	}
+
+	private boolean decode(byte op, ByteBuffer payload) {
+		try {
+			UUID playerId = new UUID(payload.getLong(), payload.getLong());
+			String statueName = readString(payload);
+			StatueData data = null;
+			if (op == OP_PUT) {
+				String worldName = readString(payload);
+				String entityType = readString(payload);
+				data = new StatueData(worldName, payload.getDouble(), payload.getDouble(), payload.getDouble(),
+						payload.getFloat(), payload.getFloat(), entityType, payload.getLong());
+			} else if (op != OP_REMOVE) {
+				return false;
+			}
+			unapplied.computeIfAbsent(playerId, k -> new Object2ObjectOpenHashMap<>()).put(statueName, data);
+			return true;
+		} catch (RuntimeException e) {
+			return false;
+		}
+	}
+
+	private void encode(UUID playerId, String statueName, StatueData data) throws IOException {
+		byte[] name = utf8(statueName);
+		byte[] world = data != null ? utf8(data.worldName()) : null;
+		byte[] type = data != null ? utf8(data.entityType()) : null;
+		int payloadLength = 16 + 2 + name.length + (data != null ? 2 + world.length + 2 + type.length + 24 + 8 + 8 : 0);
+		if (payloadLength > 0xFFFF) {
+			throw new IOException("Statue '" + statueName + "' is too large for the journal.");
+		}
+		ensure(RECORD_OVERHEAD + payloadLength);
+		int recordStart = out.position();
+		out.put(data != null ? OP_PUT : OP_REMOVE).putShort((short) payloadLength);
+		out.putLong(playerId.getMostSignificantBits()).putLong(playerId.getLeastSignificantBits());
+		out.putShort((short) name.length).put(name);
+		if (data != null) {
+			out.putShort((short) world.length).put(world);
+			out.putShort((short) type.length).put(type);
+			out.putDouble(data.x()).putDouble(data.y()).putDouble(data.z());
+			out.putFloat(data.yaw()).putFloat(data.pitch());
+			out.putLong(data.statueId());
+		}
+		crc.reset();
+		crc.update(out.array(), recordStart, 3 + payloadLength);
+		out.putInt((int) crc.getValue());
+	}
+
+	private void ensure(int bytes) {
+		if (out.remaining() < bytes) {
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+			out.flip();
+			out = grown.put(out);
+		}
+	}
+
+	private static byte[] utf8(String value) {
+		return (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String readString(ByteBuffer payload) {
+		byte[] bytes = new byte[Short.toUnsignedInt(payload.getShort())];
+		payload.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
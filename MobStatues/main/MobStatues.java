@@ -1,20 +1,18 @@
 package main;
 
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectList;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.NamespacedKey;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.ArmorStand;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
@@ -24,14 +22,28 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.event.entity.ItemSpawnEvent;
-import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.event.vehicle.VehicleEnterEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
 import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
 
 /**
  * A plugin that allows players to create, manage, and manipulate "mob statues."
@@ -43,112 +55,453 @@ import java.util.concurrent.ThreadLocalRandom;
 public class MobStatues extends JavaPlugin implements Listener, TabCompleter {
 
 	/**
-	 * The primary data structure storing statues. Keyed by player UUID broken down
-	 * into two longs (msb, lsb), then by statue name, returning the associated entity.
+	 * The primary data structure storing statues. Statue records are kept in parallel
+	 * arrays and found by owner and name, or by statue ID.
 	 */
-	private final Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<Object2ObjectOpenHashMap<String, Entity>>> playerStatueMap = new Long2ObjectOpenHashMap<>();
+	private final StatueRegistry registry = new StatueRegistry();
 
 	/**
-	 * A secondary lookup map that associates a statue's unique ID with the player's UUID
-	 * and the statue's name. This allows quick retrieval of statue ownership and name
-	 * by an internal ID, used for event handling and data consistency.
+	 * Maps the UUIDs of live statue entities to their statues, so entity events can
+	 * tell statues apart from ordinary mobs without reading persistent data.
 	 */
-	private final Object2ObjectOpenHashMap<String, StatueInfo> statueLookupMap = new Object2ObjectOpenHashMap<>();
+	private final StatueEntityIndex entityIndex = new StatueEntityIndex();
 
 	/**
-	 * Indicates whether item drops should be prevented, used when removing statues
-	 * to ensure no unwanted drops occur.
+	 * The location of the statue entity each thread is removing, or null. Item spawns
+	 * are only cancelled on a thread that is removing a statue entity, and only close to
+	 * it. The counter lets every other item spawn return after a single read.
 	 */
-	private boolean preventItemDrops = false;
+	private final ThreadLocal<Location> dropSuppression = new ThreadLocal<>();
+	private final AtomicInteger dropSuppressions = new AtomicInteger();
 
 	/**
-	 * A character set used for generating random IDs for statues.
+	 * How far from a removed statue entity spawned items are cancelled, squared.
 	 */
-	private static final char[] CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+	private static final double DROP_SUPPRESSION_RADIUS_SQUARED = 2.0 * 2.0;
 
 	/**
-	 * A ThreadLocal builder for efficient random name generation.
+	 * How far a leftover statue entity may stand from its statue and still be adopted
+	 * by the integrity scanner, squared.
 	 */
-	private static final ThreadLocal<StringBuilder> NAME_BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(16));
+	private static final double ADOPT_DISTANCE_SQUARED = 0.5 * 0.5;
+
+	/**
+	 * Statue records indexed by world and chunk, used to spawn and despawn statue
+	 * entities as their chunks load and unload.
+	 */
+	private final StatueChunkIndex chunkIndex = new StatueChunkIndex();
+
+	/**
+	 * Runs work on the server thread, or on the owning region thread on region-threaded servers.
+	 */
+	private StatueScheduler statueScheduler;
+
+	/**
+	 * Runs statue entity spawns and despawns within a per-tick time budget.
+	 */
+	private StatueSpawnScheduler spawnScheduler;
+
+	/**
+	 * Limits each player to the closest statues, or null when culling is disabled.
+	 */
+	private StatueCullingEngine cullingEngine;
+
+	/**
+	 * Whether each statue carries an invisible marker armor stand passenger
+	 * ("statues.mode: passenger") or stands alone ("statues.mode: standalone").
+	 */
+	private boolean markerPassengers = true;
+
+	/**
+	 * Whether statue entities are saved with their chunk and reattached to their statues
+	 * when they load again ("statues.persist-entities"), instead of being removed on
+	 * unload and spawned again on load.
+	 */
+	private boolean persistentEntities;
+
+	/**
+	 * Set once the stored statues are registered. Until then saved statue entities are
+	 * left alone, since their statues are not known yet.
+	 */
+	private volatile boolean statuesInstalled;
+
+	/**
+	 * The most statues one player may own, one chunk may hold and one world may hold,
+	 * from the "limits" section. 0 means no limit.
+	 */
+	private int perPlayerLimit;
+	private int perChunkLimit;
+	private int perWorldLimit;
+
+	/**
+	 * The most statues listed by /msnear.
+	 */
+	private static final int NEAR_LIST_LIMIT = 20;
+
+	/**
+	 * The lowercase names of all living entity types, for /ms tab completion. Built once
+	 * when the plugin is enabled.
+	 */
+	private final SortedNameIndex livingTypeNames = new SortedNameIndex();
+
+	/**
+	 * Scratch space for ordering tab completions by distance, reused between calls on
+	 * the same thread.
+	 */
+	private final ThreadLocal<double[]> completionDistances = ThreadLocal.withInitial(() -> new double[16]);
 
 	/**
 	 * A NamespacedKey used for storing the statue ID inside an entity's PersistentDataContainer.
 	 */
 	private NamespacedKey STATUE_ID_KEY;
 
+	/**
+	 * A NamespacedKey marking marker armor stands, holding the ID of the statue they ride.
+	 */
+	private NamespacedKey STATUE_MARKER_KEY;
+
+	/**
+	 * Removes and adopts leftover statue entities, or null when "integrity.enabled" is false.
+	 */
+	private StatueIntegrityScanner integrityScanner;
+
+	/**
+	 * Whether the integrity scanner also removes untagged invisible marker armor stands
+	 * without a vehicle, as left behind by versions that did not tag their markers.
+	 */
+	private boolean removeUntaggedMarkers;
+
+	/**
+	 * The write-behind queue that persists statue changes off the server thread.
+	 */
+	private StatuePersistence persistence;
+
+	/**
+	 * The startup loader, kept so that loading can be cancelled if the plugin is
+	 * disabled before it finishes.
+	 */
+	private StatueLoader loader;
+
+	/**
+	 * Counters and timings shown by /msstats and written to the metrics file.
+	 */
+	private final StatueMetrics metrics = new StatueMetrics();
+
+	/**
+	 * The file metrics are periodically written to, or null when disabled.
+	 */
+	private File metricsFile;
+
+	/**
+	 * Whether an /msexport or /msimport is running; only one runs at a time.
+	 */
+	private final AtomicBoolean transferRunning = new AtomicBoolean();
+
+	/**
+	 * How many imported statues are registered per task on the server thread, from
+	 * "transfer.import-batch-size".
+	 */
+	private int importBatchSize;
+
+	/**
+	 * Statue archives are read from and written to this folder inside the plugin folder,
+	 * and archive names are limited to these characters, so commands cannot reach other files.
+	 */
+	private static final String TRANSFER_FOLDER = "transfers";
+	private static final Pattern ARCHIVE_NAME = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
+	/**
+	 * How many statues /msexport snapshots from the registry at a time.
+	 */
+	private static final int EXPORT_BATCH = 1024;
+
+	/**
+	 * How many import batches may wait for the server thread at once. Reading pauses
+	 * beyond that, so an archive is never held in memory as a whole.
+	 */
+	private static final int IMPORT_BATCHES_IN_FLIGHT = 2;
+
+	/**
+	 * How often, in imported statues, /msimport reports its progress.
+	 */
+	private static final int IMPORT_PROGRESS_INTERVAL = 10_000;
+
+	/**
+	 * The running /msadmin job, or null; only one runs at a time.
+	 */
+	private final AtomicReference<StatueJob> adminJob = new AtomicReference<>();
+
+	/**
+	 * Time, in milliseconds, an /msadmin job may use per tick, from
+	 * "admin.job-tick-budget-millis".
+	 */
+	private double adminJobBudgetMillis;
+
+	/**
+	 * The players' statue groups, kept in groups.yml.
+	 */
+	private StatueGroups groups;
+
+	/**
+	 * The most statues one group may hold, from "groups.max-members". A group is moved
+	 * within a single tick, so this bounds the work of one /msgroup command.
+	 */
+	private int maxGroupMembers;
+	private static final Pattern GROUP_NAME = Pattern.compile("[a-z0-9_-]{1,32}");
+	private static final String GROUP_USAGE = "Usage: /msgroup <create|add|remove> <group> <name|name1,name2|prefix*>, "
+			+ "/msgroup <move|pivot|delete> <group>, /msgroup rotate <group> <degrees> or /msgroup list [group]";
+
+	public MobStatues() {
+	}
+
+	/**
+	 * Creates the plugin outside a running server, such as in the benchmarks.
+	 */
+	MobStatues(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+		super(loader, description, dataFolder, file);
+	}
+
 	@Override
 	public void onEnable() {
 		STATUE_ID_KEY = new NamespacedKey(this, "statue_id");
+		STATUE_MARKER_KEY = new NamespacedKey(this, "statue_marker");
+		saveDefaultConfig();
+		for (EntityType entityType : EntityType.values()) {
+			if (entityType.isAlive()) {
+				livingTypeNames.add(entityType.name().toLowerCase());
+			}
+		}
+		perPlayerLimit = getConfig().getInt("limits.per-player", 0);
+		perChunkLimit = getConfig().getInt("limits.per-chunk", 0);
+		perWorldLimit = getConfig().getInt("limits.per-world", 0);
+		markerPassengers = !getConfig().getString("statues.mode", "passenger").equalsIgnoreCase("standalone");
+		persistentEntities = getConfig().getBoolean("statues.persist-entities", false);
+		importBatchSize = Math.max(1, getConfig().getInt("transfer.import-batch-size", 500));
+		adminJobBudgetMillis = getConfig().getDouble("admin.job-tick-budget-millis", 2.0);
+		maxGroupMembers = Math.max(1, getConfig().getInt("groups.max-members", 256));
+		groups = new StatueGroups(new File(getDataFolder(), "groups.yml"));
+		groups.load();
+		long flushIntervalMillis = getConfig().getLong("persistence.flush-interval-seconds", 5L) * 1000L;
+		persistence = new StatuePersistence(createStatueStore(), flushIntervalMillis, getLogger(), metrics);
+		persistence.start();
+		statueScheduler = StatueScheduler.create(this);
+		spawnScheduler = new StatueSpawnScheduler(new StatueSpawnScheduler.Handler() {
+			@Override
+			public void spawn(Statue statue) {
+				StatueData data = statue.data();
+				World world = data != null ? Bukkit.getWorld(data.worldName()) : null;
+				if (world == null) return;
+				long chunkKey = StatueChunkIndex.chunkKey(data.x(), data.z());
+				statueScheduler.runAt(world, StatueChunkIndex.chunkX(chunkKey), StatueChunkIndex.chunkZ(chunkKey), spawnScheduler.charged(() -> spawnIfChunkLoaded(statue)));
+			}
+
+			@Override
+			public void despawn(Statue statue) {
+				despawnStatueEntity(statue);
+			}
+		}, getLogger(), getConfig().getDouble("spawning.tick-budget-millis", 2.0), getConfig().getDouble("spawning.min-tick-budget-millis", 0.25));
+		spawnScheduler.start(statueScheduler);
+		if (getConfig().getBoolean("integrity.enabled", true)) {
+			integrityScanner = new StatueIntegrityScanner(this::scanChunk, getLogger(), metrics, getConfig().getInt("integrity.chunks-per-tick", 4),
+					getConfig().getLong("integrity.sweep-interval-seconds", 300L));
+			removeUntaggedMarkers = getConfig().getBoolean("integrity.remove-untagged-markers", false);
+		}
+		if (getConfig().getBoolean("culling.enabled", false) && statueScheduler.regionThreaded()) {
+			getLogger().warning("Statue culling is not supported on region-threaded servers and stays disabled.");
+		} else if (getConfig().getBoolean("culling.enabled", false)) {
+			cullingEngine = new StatueCullingEngine(this, chunkIndex, getConfig().getDouble("culling.radius", 48.0), getConfig().getInt("culling.max-visible", 64));
+			cullingEngine.start(getConfig().getLong("culling.update-interval-ticks", 10L));
+		}
+		registerGauges();
+		metrics.registerCommands(getDescription().getCommands().keySet());
+		long metricsIntervalTicks = getConfig().getLong("metrics.file-interval-seconds", 60L) * 20L;
+		if (metricsIntervalTicks > 0) {
+			metricsFile = new File(getDataFolder(), "metrics.prom");
+			statueScheduler.runGlobalTimer(this::exportMetrics, metricsIntervalTicks, metricsIntervalTicks);
+		}
 		getServer().getPluginManager().registerEvents(this, this);
 		getLogger().info("MobStatues has been enabled!");
 		getCommand("ms").setTabCompleter(this);
 		getCommand("msmove").setTabCompleter(this);
 		getCommand("msdel").setTabCompleter(this);
 		getCommand("msadjust").setTabCompleter(this);
+		getCommand("msnear").setTabCompleter(this);
+		getCommand("msdensity").setTabCompleter(this);
+		getCommand("msexport").setTabCompleter(this);
+		getCommand("msimport").setTabCompleter(this);
+		getCommand("msadmin").setTabCompleter(this);
+		getCommand("msgroup").setTabCompleter(this);
 		loadPlayerStatuesData();
 	}
 
 	@Override
 	public void onDisable() {
 		getLogger().info("MobStatues has been disabled!");
-		removeAllStatues();
+		if (loader != null) {
+			loader.cancel();
+		}
+		StatueJob job = adminJob.get();
+		if (job != null) {
+			job.cancel();
+		}
 		savePlayerStatuesData();
+		writeGroups();
+		if (integrityScanner != null) {
+			integrityScanner.stop();
+		}
+		spawnScheduler.stop();
+		if (cullingEngine != null) {
+			cullingEngine.stop();
+		}
+		removeAllStatues();
+		if (metricsFile != null) {
+			try {
+				AtomicFiles.replace(metricsFile, metrics.render());
+			} catch (IOException e) {
+				getLogger().warning("Failed to write the metrics file.");
+				e.printStackTrace();
+			}
+		}
 	}
 
 	/**
-	 * Extracts the most significant bits of a UUID.
-	 * @param uuid The UUID to extract from.
-	 * @return The most significant bits as a long.
+	 * Registers the gauges reported by /msstats and the metrics file.
 	 */
-	private static long getMsb(UUID uuid) {
-		return uuid.getMostSignificantBits();
+	private void registerGauges() {
+		metrics.gauge("statues", "Statues currently registered.", registry::size);
+		metrics.gauge("statue_entities", "Live statue entities.", entityIndex::size);
+		metrics.gauge("marker_passengers", "Live marker armor stands riding statues.", () -> markerPassengers ? entityIndex.size() : 0);
+		metrics.gauge("owned_entities", "Live entities owned by the plugin, statues and marker armor stands.",
+				() -> markerPassengers ? 2L * entityIndex.size() : entityIndex.size());
+		metrics.gauge("spawn_queue_depth", "Statue spawns and despawns waiting for tick budget.", spawnScheduler::queueDepth);
+		metrics.gauge("integrity_queue_depth", "Chunks waiting for the integrity scanner.",
+				() -> integrityScanner != null ? integrityScanner.queueDepth() : 0);
+		metrics.gauge("registry_bytes", "Estimated size of the statue registry arrays and indexes.", registry::estimatedBytes);
 	}
 
 	/**
-	 * Extracts the least significant bits of a UUID.
-	 * @param uuid The UUID to extract from.
-	 * @return The least significant bits as a long.
+	 * Renders the metrics on the global thread and writes the file asynchronously.
 	 */
-	private static long getLsb(UUID uuid) {
-		return uuid.getLeastSignificantBits();
+	private void exportMetrics() {
+		String text = metrics.render();
+		File file = metricsFile;
+		statueScheduler.runAsync(() -> {
+			try {
+				AtomicFiles.replace(file, text);
+			} catch (IOException e) {
+				getLogger().warning("Failed to write the metrics file.");
+				e.printStackTrace();
+			}
+		});
 	}
 
 	/**
-	 * Ensures the existence of the secondary map keyed by msb (for a player's UUID).
-	 * @param msb The most significant bits of a player's UUID.
-	 * @return The second-level map corresponding to msb.
+	 * Creates the statue store selected by "storage.format". When the binary format is
+	 * selected for the first time, existing player YAML files are migrated into it once
+	 * and the players folder is renamed so the migration does not run again. YAML files
+	 * sit behind the operation journal unless "storage.journal" is off; a journal left
+	 * over from an earlier start is always applied to the player files first.
+	 * @return The store to persist statues with.
 	 */
-	private Long2ObjectOpenHashMap<Object2ObjectOpenHashMap<String, Entity>> getOrCreateSecondMap(long msb) {
-		return playerStatueMap.computeIfAbsent(msb, k -> new Long2ObjectOpenHashMap<>());
+	private StatueStore createStatueStore() {
+		YamlStatueStore yamlStore = new YamlStatueStore(new File(getDataFolder(), "players"));
+		File journalFile = new File(getDataFolder(), "statues.journal");
+		boolean binary = getConfig().getString("storage.format", "yaml").equalsIgnoreCase("binary");
+		if (!binary && getConfig().getBoolean("storage.journal", true)) {
+			long compactBytes = getConfig().getLong("storage.journal-compact-kilobytes", 1024L) * 1024L;
+			JournaledStatueStore journaledStore = new JournaledStatueStore(yamlStore, journalFile, compactBytes, getLogger());
+			try {
+				journaledStore.open();
+				return journaledStore;
+			} catch (IOException e) {
+				getLogger().warning("Failed to open the statue journal, writing player files directly.");
+				e.printStackTrace();
+				setAsideJournal(journalFile);
+				return yamlStore;
+			}
+		}
+		if (journalFile.exists()) {
+			applyJournal(yamlStore, journalFile);
+		}
+		if (!binary) {
+			return yamlStore;
+		}
+		File binaryFile = new File(getDataFolder(), "statues.bin");
+		BinaryStatueStore binaryStore = new BinaryStatueStore(binaryFile);
+		boolean created = !binaryFile.exists();
+		try {
+			binaryStore.open();
+			if (created && yamlStore.hasData()) {
+				long start = System.nanoTime();
+				int migrated = binaryStore.migrateFrom(yamlStore);
+				File backupFolder = new File(getDataFolder(), "players-migrated");
+				if (!yamlStore.playersDataFolder().renameTo(backupFolder)) {
+					getLogger().warning("Could not rename the players folder after migration; it will be ignored while the binary format is selected.");
+				}
+				getLogger().info("Migrated " + migrated + " statues to the binary store in " + (System.nanoTime() - start) / 1_000_000L + " ms.");
+			}
+			return binaryStore;
+		} catch (IOException e) {
+			getLogger().warning("Failed to open the binary statue store, falling back to YAML.");
+			e.printStackTrace();
+			try {
+				binaryStore.close();
+			} catch (IOException ignored) {
+			}
+			if (created) {
+				binaryFile.delete();
+			}
+			return yamlStore;
+		}
 	}
 
 	/**
-	 * Ensures and retrieves the statue map for a given player.
-	 * @param playerId The UUID of the player.
-	 * @return A map of statue name to statue Entity.
+	 * Applies a journal left over from a start with the journal enabled to the player
+	 * files, then deletes it.
+	 * @param yamlStore The player files.
+	 * @param journalFile The journal.
 	 */
-	private Object2ObjectOpenHashMap<String, Entity> getOrCreatePlayerStatues(UUID playerId) {
-		long msb = getMsb(playerId);
-		long lsb = getLsb(playerId);
-		Long2ObjectOpenHashMap<Object2ObjectOpenHashMap<String, Entity>> secondMap = getOrCreateSecondMap(msb);
-		return secondMap.computeIfAbsent(lsb, k -> new Object2ObjectOpenHashMap<>());
+	private void applyJournal(YamlStatueStore yamlStore, File journalFile) {
+		JournaledStatueStore journaledStore = new JournaledStatueStore(yamlStore, journalFile, Long.MAX_VALUE, getLogger());
+		try {
+			journaledStore.open();
+			journaledStore.close();
+			if (!journalFile.delete()) {
+				getLogger().warning("Could not delete the applied statue journal.");
+			}
+		} catch (IOException e) {
+			getLogger().warning("Failed to apply the statue journal to the player files.");
+			e.printStackTrace();
+			setAsideJournal(journalFile);
+		}
 	}
 
 	/**
-	 * Retrieves the statue map for a given player.
-	 * @param playerId The UUID of the player.
-	 * @return The player's statue map or null if none found.
+	 * Renames a journal that could not be used, so its changes are never replayed over
+	 * newer player files.
+	 * @param journalFile The journal.
 	 */
-	private Object2ObjectOpenHashMap<String, Entity> getPlayerStatues(UUID playerId) {
-		long msb = getMsb(playerId);
-		long lsb = getLsb(playerId);
-		Long2ObjectOpenHashMap<Object2ObjectOpenHashMap<String, Entity>> secondMap = playerStatueMap.get(msb);
-		if (secondMap == null) return null;
-		return secondMap.get(lsb);
+	private void setAsideJournal(File journalFile) {
+		File brokenFile = new File(journalFile.getParentFile(), journalFile.getName() + ".broken");
+		if (journalFile.exists() && !journalFile.renameTo(brokenFile)) {
+			getLogger().warning("Could not rename the unusable statue journal; delete " + journalFile.getName() + " by hand.");
+		}
 	}
 
 	@Override
 	public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+		long start = System.nanoTime();
+		try {
+			return handleCommand(sender, command, args);
+		} finally {
+			StatueMetrics.Histogram time = metrics.command(command.getName().toLowerCase());
+			if (time != null) {
+				time.record(System.nanoTime() - start);
+			}
+		}
+	}
+
+	private boolean handleCommand(CommandSender sender, Command command, String[] args) {
 		if (command.getName().equalsIgnoreCase("ms")) {
 			if (args.length >= 2) {
 				if (sender instanceof Player player) {
@@ -167,7 +520,9 @@ public class MobStatues extends JavaPlugin implements Listener, TabCompleter {
 			if (args.length == 1) {
 				if (sender instanceof Player player) {
 					String statueName = args[0].toLowerCase();
-					moveStatue(player, statueName);
+					if (!moveStatue(player, statueName)) {
+						player.sendMessage("You don't have a statue named '" + statueName + "'.");
+					}
 				} else {
 					sender.sendMessage("This command can only be used by players.");
 				}
@@ -211,7 +566,82 @@ public class MobStatues extends JavaPlugin implements Listener, TabCompleter {
 				}
 				return true;
 			} else {
-				sender.sendMessage("Usage: /msadjust <name> <rotation> <pitch>");
+				sender.sendMessage("Usage: /msadjust <name|name1,name2|prefix*> <rotation> <pitch>");
+				return true;
+			}
+		} else if (command.getName().equalsIgnoreCase("msdensity")) {
+			if (args.length <= 1) {
+				int limit = 10;
+				if (args.length == 1) {
+					try {
+						limit = Integer.parseInt(args[0]);
+					} catch (NumberFormatException e) {
+						sender.sendMessage("Invalid count. Please provide a whole number.");
+						return true;
+					}
+				}
+				reportDensity(sender, Math.max(1, Math.min(limit, 100)));
+			} else {
+				sender.sendMessage("Usage: /msdensity [count]");
+			}
+			return true;
+		} else if (command.getName().equalsIgnoreCase("msexport")) {
+			if (args.length >= 1) {
+				exportStatues(sender, args);
+			} else {
+				sender.sendMessage("Usage: /msexport <file> [world:<name>] [owner:<player>] [type:<entity>] [box:<x1>,<y1>,<z1>,<x2>,<y2>,<z2>]");
+			}
+			return true;
+		} else if (command.getName().equalsIgnoreCase("msimport")) {
+			if (args.length >= 1) {
+				importStatues(sender, args);
+			} else {
+				sender.sendMessage("Usage: /msimport <file> [replace] [world:<name>] [owner:<player>] [type:<entity>] [box:<x1>,<y1>,<z1>,<x2>,<y2>,<z2>]");
+			}
+			return true;
+		} else if (command.getName().equalsIgnoreCase("msadmin")) {
+			if (args.length >= 1) {
+				adminCommand(sender, args);
+			} else {
+				sender.sendMessage("Usage: /msadmin <purge|rotate <degrees>|translate <dx> <dy> <dz>|cancel> [filters]");
+			}
+			return true;
+		} else if (command.getName().equalsIgnoreCase("msgroup")) {
+			if (args.length >= 1) {
+				if (sender instanceof Player player) {
+					groupCommand(player, args);
+				} else {
+					sender.sendMessage("This command can only be used by players.");
+				}
+			} else {
+				sender.sendMessage(GROUP_USAGE);
+			}
+			return true;
+		} else if (command.getName().equalsIgnoreCase("msstats")) {
+			sender.sendMessage("MobStatues statistics:");
+			for (String line : metrics.summary()) {
+				sender.sendMessage("- " + line);
+			}
+			return true;
+		} else if (command.getName().equalsIgnoreCase("msnear")) {
+			if (args.length <= 1) {
+				if (sender instanceof Player player) {
+					double radius = getConfig().getDouble("near.default-radius", 32.0);
+					if (args.length == 1) {
+						try {
+							radius = Double.parseDouble(args[0]);
+						} catch (NumberFormatException e) {
+							player.sendMessage("Invalid radius. Please provide a valid number.");
+							return true;
+						}
+					}
+					listNearbyStatues(player, radius);
+				} else {
+					sender.sendMessage("This command can only be used by players.");
+				}
+				return true;
+			} else {
+				sender.sendMessage("Usage: /msnear [radius]");
 				return true;
 			}
 		}
@@ -219,57 +649,166 @@ public class MobStatues extends JavaPlugin implements Listener, TabCompleter {
 	}
 
 	/**
-	 * Adjusts the rotation of an existing statue for a player and updates its data.
-	 * @param player The player who owns the statue.
-	 * @param statueName The name of the statue.
+	 * Adjusts the rotation of one or more existing statues for a player and updates their data.
+	 * The target is a statue name, a comma-separated list of names, or a name prefix ending
+	 * in '*'; every matched statue is rotated in place in the same tick. Statues removed
+	 * on another region thread meanwhile are skipped.
+	 * @param player The player who owns the statues.
+	 * @param target The statue name, list or prefix pattern.
 	 * @param yaw The new yaw angle.
 	 * @param pitch The new pitch angle.
 	 */
-	private void adjustStatue(Player player, String statueName, double yaw, double pitch) {
-		Object2ObjectOpenHashMap<String, Entity> playerStatues = getPlayerStatues(player.getUniqueId());
-		if (playerStatues != null) {
-			Entity statue = playerStatues.get(statueName);
-			if (statue instanceof LivingEntity) {
-				String statueId = getStatueId(statue);
-				removeStatue(player.getUniqueId(), statueName);
-				Location entityLocation = statue.getLocation();
-				removeOldEntity(statue);
-				LivingEntity newEntity = (LivingEntity) entityLocation.getWorld().spawnEntity(entityLocation, statue.getType());
-				setupStatueEntity(newEntity, statueId);
-				newEntity.teleport(new Location(newEntity.getWorld(), entityLocation.getX(), entityLocation.getY(), entityLocation.getZ(), (float) yaw, (float) pitch));
-				getOrCreatePlayerStatues(player.getUniqueId()).put(statueName, newEntity);
-				statueLookupMap.put(statueId, new StatueInfo(player.getUniqueId(), statueName));
-
-				File playersDataFolder = new File(getDataFolder(), "players");
-				File playerDataFile = new File(playersDataFolder, player.getUniqueId().toString() + ".yml");
-				if (playerDataFile.exists()) {
-					FileConfiguration playerDataConfig = YamlConfiguration.loadConfiguration(playerDataFile);
-					ConfigurationSection statuesSection = playerDataConfig.getConfigurationSection("statues");
-					if (statuesSection != null) {
-						ConfigurationSection statueData = statuesSection.getConfigurationSection(statueName);
-						if (statueData != null) {
-							statueData.set("yaw", yaw);
-							statueData.set("pitch", pitch);
-							try {
-								playerDataConfig.save(playerDataFile);
-							} catch (IOException e) {
-								getLogger().warning("Failed to save player data for player " + player.getUniqueId());
-								e.printStackTrace();
-							}
-							player.sendMessage("Statue '" + statueName + "' yaw and pitch adjusted successfully.");
-							return;
-						}
-					}
+	private void adjustStatue(Player player, String target, double yaw, double pitch) {
+		ObjectList<Statue> playerStatues = registry.ownedBy(player.getUniqueId());
+		if (!playerStatues.isEmpty()) {
+			ObjectList<Statue> statues = resolveStatues(player.getUniqueId(), playerStatues, target);
+			if (!statues.isEmpty()) {
+				int adjusted = 0;
+				String adjustedName = null;
+				for (Statue statue : statues) {
+					StatueDescriptor current = registry.describe(statue);
+					if (current == null) continue;
+					applyStatueEdit(statue, current.data().withRotation((float) yaw, (float) pitch));
+					adjusted++;
+					adjustedName = current.name();
+				}
+				if (adjusted == 0) {
+					player.sendMessage("You don't have a statue named '" + target + "'.");
+				} else if (statues.size() == 1) {
+					player.sendMessage("Statue '" + adjustedName + "' yaw and pitch adjusted successfully.");
+				} else {
+					player.sendMessage(adjusted + " statues adjusted successfully.");
 				}
-				player.sendMessage("Statue data not found for '" + statueName + "'.");
 			} else {
-				player.sendMessage("You don't have a statue named '" + statueName + "'.");
+				player.sendMessage("You don't have a statue named '" + target + "'.");
 			}
 		} else {
 			player.sendMessage("You don't have any statues.");
 		}
 	}
 
+	/**
+	 * Resolves a statue target to the matching statues of one player.
+	 * @param playerId The UUID of the player.
+	 * @param playerStatues The player's statues.
+	 * @param target A statue name, a comma-separated list of names, or a prefix ending in '*'.
+	 * @return The matching statues, possibly empty.
+	 */
+	private ObjectList<Statue> resolveStatues(UUID playerId, ObjectList<Statue> playerStatues, String target) {
+		ObjectList<Statue> statues = new ObjectArrayList<>();
+		if (target.endsWith("*")) {
+			String prefix = target.substring(0, target.length() - 1);
+			for (Statue statue : playerStatues) {
+				String name = statue.name();
+				if (name != null && name.startsWith(prefix)) {
+					statues.add(statue);
+				}
+			}
+		} else {
+			for (String name : target.split(",")) {
+				Statue statue = registry.get(playerId, name);
+				if (statue != null && !statues.contains(statue)) {
+					statues.add(statue);
+				}
+			}
+		}
+		return statues;
+	}
+
+	/**
+	 * Applies a new position and rotation to a statue. A live entity is rotated or
+	 * teleported in place together with its passenger; the entity is only re-spawned
+	 * when it has to change world or its destination chunk is not loaded. On
+	 * region-threaded servers a moved statue is always re-spawned, because its entity
+	 * and its destination may belong to different region threads. Only this statue is
+	 * queued for persistence, under the statue's monitor so a removal on another region
+	 * thread cannot be followed by a save that writes the statue back.
+	 * @param statue The statue to edit.
+	 * @param newData The statue's new state.
+	 */
+	private void applyStatueEdit(Statue statue, StatueData newData) {
+		synchronized (statue) {
+			StatueDescriptor current = registry.describe(statue);
+			if (current != null && updateStatue(statue, newData)) {
+				persistence.queueSave(current.ownerId(), current.name(), newData);
+			}
+		}
+	}
+
+	/**
+	 * Applies a new position and rotation to a statue and its entity, as
+	 * {@link #applyStatueEdit(Statue, StatueData)} does, without queueing it for persistence.
+	 * The index and registry changes are made under the statue's monitor, which
+	 * {@link #unregisterStatue(Statue)} also holds, so a concurrent removal either comes
+	 * first and the edit is dropped, or comes after and finds the statue where it was put.
+	 * @param statue The statue to edit.
+	 * @param newData The statue's new state.
+	 * @return False if the statue has been removed.
+	 */
+	private boolean updateStatue(Statue statue, StatueData newData) {
+		boolean moved;
+		synchronized (statue) {
+			StatueData oldData = statue.data();
+			if (oldData == null) return false;
+			moved = !oldData.samePosition(newData);
+			if (moved) {
+				chunkIndex.remove(statue);
+			}
+			boolean updated = statue.setData(newData);
+			if (moved) {
+				chunkIndex.add(statue);
+			}
+			if (!updated) return false;
+		}
+
+		LivingEntity entity = statue.entity();
+		if (!moved) {
+			if (entity != null) {
+				statueScheduler.runFor(entity, () -> {
+					if (entity.isValid()) {
+						entity.setRotation(newData.yaw(), newData.pitch());
+					}
+				});
+			}
+		} else if (entity != null && !statueScheduler.regionThreaded() && entity.isValid() && canTeleportTo(entity.getWorld(), newData)) {
+			teleportStatueEntity(entity, new Location(entity.getWorld(), newData.x(), newData.y(), newData.z(), newData.yaw(), newData.pitch()));
+			if (cullingEngine != null) {
+				cullingEngine.statueMoved(statue);
+			}
+		} else {
+			spawnScheduler.queueRespawn(statue);
+		}
+		return true;
+	}
+
+	/**
+	 * @param world The world a statue entity stands in.
+	 * @param target The statue's new state.
+	 * @return True if the target is in the same world and its chunk is loaded.
+	 */
+	private static boolean canTeleportTo(World world, StatueData target) {
+		long chunkKey = StatueChunkIndex.chunkKey(target.x(), target.z());
+		return world.getName().equals(target.worldName()) && world.isChunkLoaded(StatueChunkIndex.chunkX(chunkKey), StatueChunkIndex.chunkZ(chunkKey));
+	}
+
+	/**
+	 * Teleports a statue entity and its passengers. Passengers are dismounted first,
+	 * because entities carrying passengers cannot be teleported, and mounted again after.
+	 * @param entity The statue entity.
+	 * @param target The destination, including rotation.
+	 */
+	private static void teleportStatueEntity(LivingEntity entity, Location target) {
+		List<Entity> passengers = entity.getPassengers();
+		for (Entity passenger : passengers) {
+			entity.removePassenger(passenger);
+		}
+		entity.teleport(target);
+		for (Entity passenger : passengers) {
+			passenger.teleport(target);
+			entity.addPassenger(passenger);
+		}
+	}
+
 	/**
 	 * Removes passengers and despawns an entity cleanly.
 	 * @param entity The entity to remove.
@@ -290,7 +829,10 @@ public class MobStatues extends JavaPlugin implements Listener, TabCompleter {
 	 * @param entityName The type of entity to spawn as a statue.
 	 */
 	private void createStatue(Player player, String statueName, String entityName) {
-		removeStatue(player.getUniqueId(), statueName);
+		if (!persistence.store().supportsName(statueName)) {
+			player.sendMessage("Statue names can be at most " + BinaryStatueStore.MAX_NAME_BYTES + " characters long.");
+			return;
+		}
 		EntityType entityType;
 		try {
 			entityType = EntityType.valueOf(entityName);
@@ -303,190 +845,640 @@ public class MobStatues extends JavaPlugin implements Listener, TabCompleter {
 			player.sendMessage("Invalid entity name.");
 			return;
 		}
+		String limitMessage = densityLimitMessage(player, registry.get(player.getUniqueId(), statueName), player.getLocation());
+		if (limitMessage != null) {
+			player.sendMessage(limitMessage);
+			return;
+		}
+		removeStatue(player.getUniqueId(), statueName);
 
-		Location location = player.getLocation();
-		LivingEntity entity = (LivingEntity) location.getWorld().spawnEntity(location, entityType);
-		String statueId = generateRandomName();
-		setupStatueEntity(entity, statueId);
-
-		getOrCreatePlayerStatues(player.getUniqueId()).put(statueName, entity);
-		statueLookupMap.put(statueId, new StatueInfo(player.getUniqueId(), statueName));
+		StatueData data = dataAt(player.getLocation(), entityType, generateStatueId());
+		Statue statue = registerStatue(player.getUniqueId(), statueName, entityType, data);
+		spawnScheduler.queueSpawn(statue);
 
 		player.sendMessage("Statue '" + statueName + "' created successfully.");
-		savePlayerStatuesData();
+		persistence.queueSave(player.getUniqueId(), statueName, data);
 	}
 
 	/**
-	 * Configures a newly spawned entity to function as a statue. It sets no visible name,
-	 * makes it invulnerable, removes AI, and stores the statue ID in its PersistentDataContainer.
-	 * @param entity The entity to set up as a statue.
-	 * @param statueId The unique statue ID to store.
+	 * Builds the stored state of a statue standing at a location.
+	 * @param location The statue's location, including rotation.
+	 * @param entityType The statue's entity type.
+	 * @param statueId The statue's unique ID.
+	 * @return The statue data.
 	 */
-	private void setupStatueEntity(LivingEntity entity, String statueId) {
-		entity.setPersistent(true);
-		entity.setInvulnerable(true);
-		entity.setAI(false);
-		entity.setCollidable(false);
-		entity.setGravity(false);
-		entity.setSilent(true);
-		entity.setCustomNameVisible(false);
-		entity.setCustomName(null);
-		entity.getPersistentDataContainer().set(STATUE_ID_KEY, PersistentDataType.STRING, statueId);
+	private static StatueData dataAt(Location location, EntityType entityType, long statueId) {
+		return new StatueData(location.getWorld().getName(), location.getX(), location.getY(), location.getZ(),
+				location.getYaw(), location.getPitch(), entityType.name(), statueId);
+	}
 
-		ArmorStand armorStand = entity.getWorld().spawn(entity.getLocation(), ArmorStand.class);
-		armorStand.setInvisible(true);
-		armorStand.setMarker(true);
-		entity.addPassenger(armorStand);
+	/**
+	 * Adds a statue to the registry and the chunk index.
+	 * @param playerId The UUID of the player who owns the statue.
+	 * @param statueName The name of the statue.
+	 * @param entityType The statue's entity type.
+	 * @param data The statue's state.
+	 * @return The registered statue.
+	 */
+	private Statue registerStatue(UUID playerId, String statueName, EntityType entityType, StatueData data) {
+		Statue statue = registry.add(playerId, statueName, entityType, data);
+		chunkIndex.add(statue);
+		return statue;
 	}
 
 	/**
-	 * Retrieves the statue ID from an entity's PersistentDataContainer.
-	 * @param entity The entity whose ID should be retrieved.
-	 * @return The statue ID or null if not found.
+	 * Removes a statue from the chunk index, the registry, which marks it removed, and
+	 * its owner's groups. Holds the statue's monitor, like {@link #updateStatue(Statue, StatueData)}.
+	 * @param statue The statue to unregister.
 	 */
-	private String getStatueId(Entity entity) {
-		PersistentDataContainer pdc = entity.getPersistentDataContainer();
-		if (pdc.has(STATUE_ID_KEY, PersistentDataType.STRING)) {
-			return pdc.get(STATUE_ID_KEY, PersistentDataType.STRING);
+	private void unregisterStatue(Statue statue) {
+		StatueDescriptor removed;
+		synchronized (statue) {
+			removed = registry.describe(statue);
+			chunkIndex.remove(statue);
+			registry.remove(statue);
+		}
+		if (removed != null) {
+			groups.statueRemoved(removed.ownerId(), removed.name());
 		}
-		return null;
 	}
 
 	/**
-	 * Attempts to remove a statue safely by simply removing the entity.
-	 * @param statue The entity representing the statue to remove.
+	 * Spawns a statue's entity if the statue still exists, has no live entity and its
+	 * chunk is loaded. With persistent entities the chunk's entities must have loaded
+	 * too, since the statue's saved entity may be among them. Called by the spawn
+	 * scheduler, on the thread that owns the chunk.
+	 * @param statue The statue to spawn.
 	 */
-	private void removeOldStatue(Entity statue) {
-		if (statue != null) {
-			preventItemDrops = true;
-			statue.remove();
-			preventItemDrops = false;
+	private void spawnIfChunkLoaded(Statue statue) {
+		if (statue.isRemoved()) return;
+		LivingEntity entity = statue.entity();
+		if (entity != null) {
+			if (entity.isValid()) return;
+			despawnStatueEntity(statue);
 		}
+		StatueData data = statue.data();
+		if (data == null) return;
+		World world = Bukkit.getWorld(data.worldName());
+		long chunkKey = StatueChunkIndex.chunkKey(data.x(), data.z());
+		int chunkX = StatueChunkIndex.chunkX(chunkKey);
+		int chunkZ = StatueChunkIndex.chunkZ(chunkKey);
+		if (world == null || !world.isChunkLoaded(chunkX, chunkZ)) return;
+		if (persistentEntities && !world.getChunkAt(chunkX, chunkZ).isEntitiesLoaded()) return;
+		spawnStatueEntity(statue, world);
 	}
 
 	/**
-	 * Handles the event of item spawning. If item drops are prevented, cancel the event.
-	 * @param event The item spawn event.
+	 * Spawns the entity for a statue at its stored location and sets it up as a statue.
+	 * @param statue The statue to spawn.
+	 * @param world The loaded world the statue stands in.
 	 */
-	@EventHandler
-	public void onItemSpawn(ItemSpawnEvent event) {
-		if (preventItemDrops) {
-			event.setCancelled(true);
+	private void spawnStatueEntity(Statue statue, World world) {
+		StatueData data = statue.data();
+		if (data == null) return;
+		EntityType entityType = statue.entityType();
+		if (entityType == null) return;
+		Location location = new Location(world, data.x(), data.y(), data.z(), data.yaw(), data.pitch());
+		LivingEntity entity = (LivingEntity) world.spawnEntity(location, entityType);
+		setupStatueEntity(entity, data.statueId());
+		statue.setEntity(entity);
+		metrics.statuesSpawned.increment();
+		UUID entityId = entity.getUniqueId();
+		entityIndex.put(entityId.getMostSignificantBits(), entityId.getLeastSignificantBits(), statue);
+		if (cullingEngine != null) {
+			cullingEngine.statueSpawned(statue);
 		}
 	}
 
 	/**
-	 * Handles entity deaths. If a dead entity was a statue, remove it from memory and config.
-	 * @param event The entity death event.
+	 * Detaches a statue's entity, keeping the statue record, and removes the entity and
+	 * its passengers from the world on the thread that owns it.
+	 * @param statue The statue to despawn.
 	 */
-	@EventHandler
-	public void onEntityDeath(EntityDeathEvent event) {
-		Entity entity = event.getEntity();
-		String statueId = getStatueId(entity);
-		if (statueId != null && statueLookupMap.containsKey(statueId)) {
-			StatueInfo info = statueLookupMap.get(statueId);
-			UUID playerId = info.playerId();
-			String statueName = info.statueName();
-			removeStatueFromMemory(playerId, statueName);
-			removeStatueFromConfig(playerId, statueName);
-			statueLookupMap.remove(statueId);
+	private void despawnStatueEntity(Statue statue) {
+		LivingEntity entity = statue.takeEntity();
+		if (entity != null) {
+			metrics.statuesDespawned.increment();
+			UUID entityId = entity.getUniqueId();
+			entityIndex.remove(entityId.getMostSignificantBits(), entityId.getLeastSignificantBits());
+			statueScheduler.runFor(entity, spawnScheduler.charged(() -> removeWithoutDrops(entity)));
 		}
 	}
 
 	/**
-	 * Removes a statue from memory structures but not from the world (the entity may already be dead).
-	 * @param playerId The player's UUID who owns the statue.
-	 * @param statueName The name of the statue.
+	 * Removes a statue entity and its passengers. Items spawned by the removal are
+	 * cancelled, but only around this entity.
+	 * @param entity The statue entity.
 	 */
-	private void removeStatueFromMemory(UUID playerId, String statueName) {
-		Object2ObjectOpenHashMap<String, Entity> playerStatues = getPlayerStatues(playerId);
-		if (playerStatues != null) {
-			Entity statue = playerStatues.remove(statueName);
-			if (statue != null) {
-				String statueId = getStatueId(statue);
-				if (statueId != null) {
-					statueLookupMap.remove(statueId);
+	private void removeWithoutDrops(LivingEntity entity) {
+		dropSuppression.set(entity.getLocation());
+		dropSuppressions.incrementAndGet();
+		try {
+			removeOldEntity(entity);
+		} finally {
+			dropSuppressions.decrementAndGet();
+			dropSuppression.remove();
+		}
+	}
+
+	/**
+	 * Finds the statue a live entity belongs to.
+	 * @param entity The entity to look up.
+	 * @return The statue, or null if the entity is not a statue entity.
+	 */
+	private Statue statueOf(Entity entity) {
+		UUID entityId = entity.getUniqueId();
+		return entityIndex.get(entityId.getMostSignificantBits(), entityId.getLeastSignificantBits());
+	}
+
+	/**
+	 * Configures a newly spawned entity to function as a statue. It sets no visible name,
+	 * makes it invulnerable, removes AI, and stores the statue ID in its PersistentDataContainer.
+	 * By default statue entities are not saved with their chunk; they are spawned again
+	 * from the statue record whenever the chunk loads. With "statues.persist-entities"
+	 * they are saved and reattached instead. In passenger mode an invisible marker armor
+	 * stand, tagged with the statue ID, rides the statue; in standalone mode the flags
+	 * alone pin it in place and mounting is blocked by {@link #onVehicleEnter(VehicleEnterEvent)}.
+	 * @param entity The entity to set up as a statue.
+	 * @param statueId The unique statue ID to store.
+	 */
+	private void setupStatueEntity(LivingEntity entity, long statueId) {
+		entity.setPersistent(persistentEntities);
+		entity.setRemoveWhenFarAway(false);
+		entity.setInvulnerable(true);
+		entity.setAI(false);
+		entity.setCollidable(false);
+		entity.setGravity(false);
+		entity.setSilent(true);
+		entity.setCustomNameVisible(false);
+		entity.setCustomName(null);
+		entity.getPersistentDataContainer().set(STATUE_ID_KEY, PersistentDataType.LONG, statueId);
+		if (!markerPassengers) return;
+		for (Entity passenger : entity.getPassengers()) {
+			if (isMarkerOf(passenger, statueId)) {
+				passenger.setPersistent(persistentEntities);
+				return;
+			}
+		}
+
+		ArmorStand armorStand = entity.getWorld().spawn(entity.getLocation(), ArmorStand.class);
+		armorStand.setPersistent(persistentEntities);
+		armorStand.setInvisible(true);
+		armorStand.setMarker(true);
+		armorStand.getPersistentDataContainer().set(STATUE_MARKER_KEY, PersistentDataType.LONG, statueId);
+		entity.addPassenger(armorStand);
+	}
+
+	/**
+	 * Checks one chunk for statue entities the plugin has lost track of. A tagged entity
+	 * standing where its statue stands is adopted if the statue has no live entity;
+	 * other tagged entities are orphans of deleted statues or duplicates and are removed.
+	 * Entities tagged with a string ID by older versions are matched by position instead.
+	 * Marker armor stands that no longer ride a statue are removed last, so markers of
+	 * adopted entities are not mistaken for strays. Called by the integrity scanner on
+	 * the thread that owns the chunk.
+	 * @param chunk The loaded chunk.
+	 */
+	private void scanChunk(Chunk chunk) {
+		reconcileChunk(chunk, false);
+	}
+
+	/**
+	 * Adopts or removes the leftover statue entities in a chunk as described for
+	 * {@link #scanChunk(Chunk)}.
+	 * @param chunk The loaded chunk.
+	 * @param reattaching True if the chunk's saved statue entities have just loaded, so
+	 *                    adoptions are expected and counted as reattached statues rather
+	 *                    than as integrity fixes.
+	 */
+	private void reconcileChunk(Chunk chunk, boolean reattaching) {
+		Entity[] entities = chunk.getEntities();
+		for (Entity entity : entities) {
+			if (!(entity instanceof LivingEntity living) || !living.isValid() || statueOf(living) != null) continue;
+			if (isLegacyStatue(living)) {
+				reconcileLegacyEntity(living, reattaching);
+				continue;
+			}
+			if (!living.getPersistentDataContainer().has(STATUE_ID_KEY, PersistentDataType.LONG)) continue;
+			long statueId = living.getPersistentDataContainer().get(STATUE_ID_KEY, PersistentDataType.LONG);
+			Statue statue = registry.byId(statueId);
+			if (statue == null) {
+				removeWithoutDrops(living);
+				metrics.orphansRemoved.increment();
+			} else if (canAdopt(statue, living)) {
+				adoptStatueEntity(statue, living);
+				(reattaching ? metrics.statuesReattached : metrics.entitiesAdopted).increment();
+			} else {
+				removeWithoutDrops(living);
+				metrics.duplicatesRemoved.increment();
+			}
+		}
+		for (Entity entity : entities) {
+			if (entity instanceof ArmorStand armorStand && armorStand.isValid() && isStrayMarker(armorStand)) {
+				armorStand.remove();
+				metrics.markersRemoved.increment();
+			}
+		}
+	}
+
+	/**
+	 * @param entity A living entity.
+	 * @return True if it carries the string statue ID written by versions before numeric
+	 *         IDs. Those IDs cannot be matched to a statue, so such entities are matched
+	 *         by where they stand.
+	 */
+	private boolean isLegacyStatue(Entity entity) {
+		return entity.getPersistentDataContainer().has(STATUE_ID_KEY, PersistentDataType.STRING);
+	}
+
+	/**
+	 * Adopts a leftover entity with a string statue ID if a statue of its type without a
+	 * live entity stands where it does. Otherwise it is removed, as a duplicate if such a
+	 * statue has an entity already and as an orphan if there is no such statue.
+	 * @param entity The leftover entity.
+	 * @param reattaching True if adoptions count as reattached statues, as in
+	 *                    {@link #reconcileChunk(Chunk, boolean)}.
+	 */
+	private void reconcileLegacyEntity(LivingEntity entity, boolean reattaching) {
+		Location location = entity.getLocation();
+		ObjectArrayList<Statue> statues = chunkIndex.get(location.getWorld().getName(), StatueChunkIndex.chunkKey(location.getX(), location.getZ()));
+		boolean matched = false;
+		if (statues != null) {
+			for (Statue statue : statues) {
+				if (!standsAt(statue.data(), entity)) continue;
+				if (canAdopt(statue, entity)) {
+					adoptStatueEntity(statue, entity);
+					(reattaching ? metrics.statuesReattached : metrics.entitiesAdopted).increment();
+					return;
 				}
+				matched = true;
 			}
 		}
+		removeWithoutDrops(entity);
+		(matched ? metrics.duplicatesRemoved : metrics.orphansRemoved).increment();
+	}
+
+	/**
+	 * @param statue The statue a leftover entity carries the ID of.
+	 * @param entity The leftover entity.
+	 * @return True if the statue has no live entity and the leftover is of the statue's
+	 *         type and stands where the statue does.
+	 */
+	private boolean canAdopt(Statue statue, LivingEntity entity) {
+		LivingEntity current = statue.entity();
+		return (current == null || !current.isValid()) && standsAt(statue.data(), entity);
 	}
 
 	/**
-	 * Removes a statue's record from the player's data file (YAML configuration).
+	 * @param data A statue's state, or null if the statue has been removed.
+	 * @param entity A living entity.
+	 * @return True if the entity is of the statue's type and stands where the statue does.
+	 */
+	private static boolean standsAt(StatueData data, LivingEntity entity) {
+		if (data == null || !entity.getType().name().equals(data.entityType())) return false;
+		Location location = entity.getLocation();
+		if (!location.getWorld().getName().equals(data.worldName())) return false;
+		double dx = location.getX() - data.x();
+		double dy = location.getY() - data.y();
+		double dz = location.getZ() - data.z();
+		return dx * dx + dy * dy + dz * dz <= ADOPT_DISTANCE_SQUARED;
+	}
+
+	/**
+	 * Makes a leftover entity the statue's entity instead of spawning a new one. Its
+	 * marker is kept in passenger mode and its other passengers are removed, and it is
+	 * set up again for the current statue mode.
+	 * @param statue The statue.
+	 * @param entity The leftover entity.
+	 */
+	private void adoptStatueEntity(Statue statue, LivingEntity entity) {
+		long statueId = statue.statueId();
+		if (statueId == StatueData.NO_ID) return;
+		despawnStatueEntity(statue);
+		boolean keptMarker = false;
+		for (Entity passenger : entity.getPassengers()) {
+			if (markerPassengers && !keptMarker && isMarkerOf(passenger, statueId)) {
+				keptMarker = true;
+				continue;
+			}
+			entity.removePassenger(passenger);
+			passenger.remove();
+		}
+		setupStatueEntity(entity, statueId);
+		statue.setEntity(entity);
+		UUID entityId = entity.getUniqueId();
+		entityIndex.put(entityId.getMostSignificantBits(), entityId.getLeastSignificantBits(), statue);
+		if (cullingEngine != null) {
+			cullingEngine.statueSpawned(statue);
+		}
+	}
+
+	/**
+	 * @param entity A passenger of a statue entity.
+	 * @param statueId The statue's ID.
+	 * @return True if the passenger is the marker armor stand of that statue.
+	 */
+	private boolean isMarkerOf(Entity entity, long statueId) {
+		if (!(entity instanceof ArmorStand)) return false;
+		Long markerId = entity.getPersistentDataContainer().get(STATUE_MARKER_KEY, PersistentDataType.LONG);
+		return markerId != null && markerId == statueId;
+	}
+
+	/**
+	 * @param armorStand An armor stand.
+	 * @return True if it is a marker armor stand of this plugin that rides no statue, or
+	 *         an untagged marker riding an entity left by a version with string IDs.
+	 */
+	private boolean isStrayMarker(ArmorStand armorStand) {
+		Entity vehicle = armorStand.getVehicle();
+		if (vehicle != null && statueOf(vehicle) != null) return false;
+		if (armorStand.getPersistentDataContainer().has(STATUE_MARKER_KEY, PersistentDataType.LONG)) return true;
+		if (vehicle != null && isLegacyStatue(vehicle)) return armorStand.isMarker() && armorStand.isInvisible();
+		return removeUntaggedMarkers && vehicle == null && armorStand.isMarker() && armorStand.isInvisible()
+				&& armorStand.getPassengers().isEmpty() && armorStand.getCustomName() == null;
+	}
+
+	/**
+	 * Stops standalone statues from being picked up by boats and minecarts, which the
+	 * marker passenger otherwise prevents.
+	 * @param event The vehicle enter event.
+	 */
+	@EventHandler(ignoreCancelled = true)
+	public void onVehicleEnter(VehicleEnterEvent event) {
+		metrics.vehicleEnterEvents.increment();
+		if (!markerPassengers && statueOf(event.getEntered()) != null) {
+			event.setCancelled(true);
+		}
+	}
+
+	/**
+	 * Handles the event of item spawning. While a statue entity is being removed, items
+	 * spawning next to it on the same thread are cancelled; every other item spawn
+	 * returns immediately.
+	 * @param event The item spawn event.
+	 */
+	@EventHandler
+	public void onItemSpawn(ItemSpawnEvent event) {
+		metrics.itemSpawnEvents.increment();
+		if (dropSuppressions.get() == 0) return;
+		Location suppressed = dropSuppression.get();
+		if (suppressed == null) return;
+		Location location = event.getLocation();
+		if (location.getWorld() != suppressed.getWorld()) return;
+		double dx = location.getX() - suppressed.getX();
+		double dy = location.getY() - suppressed.getY();
+		double dz = location.getZ() - suppressed.getZ();
+		if (dx * dx + dy * dy + dz * dz <= DROP_SUPPRESSION_RADIUS_SQUARED) {
+			event.setCancelled(true);
+		}
+	}
+
+	/**
+	 * Queues spawns for any statues standing in a chunk that has just loaded. With
+	 * persistent entities this waits for the chunk's entities, unless they are loaded
+	 * already.
+	 * @param event The chunk load event.
+	 */
+	@EventHandler
+	public void onChunkLoad(ChunkLoadEvent event) {
+		metrics.chunkLoadEvents.increment();
+		Chunk chunk = event.getChunk();
+		if (persistentEntities) {
+			if (chunk.isEntitiesLoaded()) {
+				reattachChunkStatues(chunk);
+			}
+			return;
+		}
+		ObjectArrayList<Statue> statues = chunkIndex.get(chunk.getWorld().getName(), StatueChunkIndex.chunkKey(chunk.getX(), chunk.getZ()));
+		if (statues == null) return;
+		for (Statue statue : statues) {
+			spawnScheduler.queueSpawn(statue);
+		}
+	}
+
+	/**
+	 * With persistent entities, reattaches the saved statue entities of a chunk and
+	 * spawns the missing ones. Otherwise queues the chunk for the integrity scanner if
+	 * any of its loaded entities is a statue entity or an armor stand, which may be a
+	 * marker left behind.
+	 * @param event The entities load event.
+	 */
+	@EventHandler
+	public void onEntitiesLoad(EntitiesLoadEvent event) {
+		metrics.entitiesLoadEvents.increment();
+		if (persistentEntities) {
+			reattachChunkStatues(event.getChunk());
+			return;
+		}
+		if (integrityScanner == null) return;
+		for (Entity entity : event.getEntities()) {
+			if (entity instanceof ArmorStand || entity.getPersistentDataContainer().has(STATUE_ID_KEY, PersistentDataType.LONG)
+					|| isLegacyStatue(entity)) {
+				Chunk chunk = event.getChunk();
+				integrityScanner.queue(chunk.getWorld().getName(), StatueChunkIndex.chunkKey(chunk.getX(), chunk.getZ()));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Queues despawns for any statues standing in a chunk that is unloading.
+	 * The statue records stay in memory until the chunk loads again. Statue entities
+	 * are not persistent, so one that unloads before its despawn runs is simply dropped.
+	 * Persistent statue entities are saved with the chunk instead; see
+	 * {@link #onEntitiesUnload(EntitiesUnloadEvent)}.
+	 * @param event The chunk unload event.
+	 */
+	@EventHandler
+	public void onChunkUnload(ChunkUnloadEvent event) {
+		metrics.chunkUnloadEvents.increment();
+		if (persistentEntities) return;
+		Chunk chunk = event.getChunk();
+		ObjectArrayList<Statue> statues = chunkIndex.get(chunk.getWorld().getName(), StatueChunkIndex.chunkKey(chunk.getX(), chunk.getZ()));
+		if (statues == null) return;
+		for (Statue statue : statues) {
+			spawnScheduler.queueDespawn(statue);
+		}
+	}
+
+	/**
+	 * With persistent entities, detaches statue entities that are being saved with their
+	 * chunk, leaving them in the world to be reattached when they load again.
+	 * @param event The entities unload event.
+	 */
+	@EventHandler
+	public void onEntitiesUnload(EntitiesUnloadEvent event) {
+		metrics.entitiesUnloadEvents.increment();
+		if (!persistentEntities) return;
+		for (Entity entity : event.getEntities()) {
+			Statue statue = statueOf(entity);
+			if (statue != null && statue.detachEntity((LivingEntity) entity)) {
+				UUID entityId = entity.getUniqueId();
+				entityIndex.remove(entityId.getMostSignificantBits(), entityId.getLeastSignificantBits());
+			}
+		}
+	}
+
+	/**
+	 * Reattaches the saved statue entities of a chunk whose entities have loaded, removing
+	 * orphans and duplicates like the integrity scanner, then queues spawns only for the
+	 * chunk's statues still without an entity. Entities saved by older versions with a
+	 * string ID are reattached by position, so upgrading does not spawn their statues
+	 * a second time. Does nothing until the stored statues are
+	 * registered; {@link #installStatues(ObjectArrayList, long, int)} covers the chunks
+	 * loaded before then. Runs on the thread that owns the chunk.
+	 * @param chunk The chunk.
+	 */
+	private void reattachChunkStatues(Chunk chunk) {
+		if (!statuesInstalled) return;
+		reconcileChunk(chunk, true);
+		ObjectArrayList<Statue> statues = chunkIndex.get(chunk.getWorld().getName(), StatueChunkIndex.chunkKey(chunk.getX(), chunk.getZ()));
+		if (statues == null) return;
+		for (Statue statue : statues) {
+			LivingEntity entity = statue.entity();
+			if (entity == null || !entity.isValid()) {
+				spawnScheduler.queueSpawn(statue);
+			}
+		}
+	}
+
+	/**
+	 * Handles entity deaths. If a dead entity was a statue, its loot and experience are
+	 * discarded and the statue is removed from memory and config. Deaths of other entities
+	 * cost a single lookup in the entity index.
+	 * @param event The entity death event.
+	 */
+	@EventHandler
+	public void onEntityDeath(EntityDeathEvent event) {
+		metrics.entityDeathEvents.increment();
+		Statue statue = statueOf(event.getEntity());
+		StatueDescriptor dead = statue != null ? registry.describe(statue) : null;
+		if (dead == null) return;
+		event.getDrops().clear();
+		event.setDroppedExp(0);
+		removeStatueFromMemory(dead.ownerId(), dead.name());
+		removeStatueFromConfig(dead.ownerId(), dead.name());
+	}
+
+	/**
+	 * Removes a statue from memory structures and queues the removal of what is left of
+	 * its entity, such as the marker passenger of a statue that has died.
 	 * @param playerId The player's UUID who owns the statue.
 	 * @param statueName The name of the statue.
 	 */
-	private void removeStatueFromConfig(UUID playerId, String statueName) {
-		File playersDataFolder = new File(getDataFolder(), "players");
-		File playerDataFile = new File(playersDataFolder, playerId.toString() + ".yml");
-		if (playerDataFile.exists()) {
-			FileConfiguration playerDataConfig = YamlConfiguration.loadConfiguration(playerDataFile);
-			ConfigurationSection statuesSection = playerDataConfig.getConfigurationSection("statues");
-			if (statuesSection != null) {
-				statuesSection.set(statueName, null);
-				try {
-					playerDataConfig.save(playerDataFile);
-				} catch (IOException e) {
-					getLogger().warning("Failed to save player data for player " + playerId);
-					e.printStackTrace();
-				}
-			}
+	private void removeStatueFromMemory(UUID playerId, String statueName) {
+		Statue statue = registry.get(playerId, statueName);
+		if (statue != null) {
+			unregisterStatue(statue);
+			spawnScheduler.queueDespawn(statue);
 		}
 	}
 
 	/**
-	 * Moves a statue to the player's current location. It first removes the old statue,
-	 * then creates a new one at the player's position.
+	 * Queues the removal of a statue's record from the player's data file.
+	 * @param playerId The player's UUID who owns the statue.
+	 * @param statueName The name of the statue.
+	 */
+	private void removeStatueFromConfig(UUID playerId, String statueName) {
+		persistence.queueRemove(playerId, statueName);
+	}
+
+	/**
+	 * Moves a statue to the player's current location. The existing entity is teleported
+	 * in place when possible, keeping the statue's ID.
 	 * @param player The player who owns the statue.
 	 * @param statueName The name of the statue.
-	 * @return True if successful, false otherwise.
+	 * @return True if the statue exists, false otherwise.
 	 */
 	private boolean moveStatue(Player player, String statueName) {
-		Object2ObjectOpenHashMap<String, Entity> playerStatues = getPlayerStatues(player.getUniqueId());
-		if (playerStatues != null) {
-			Entity statue = playerStatues.get(statueName);
-			if (statue instanceof LivingEntity livingEntity) {
-				String oldStatueId = getStatueId(livingEntity);
-				Location location = player.getLocation();
-				removeOldStatue(livingEntity);
-				createStatue(player, statueName, livingEntity.getType().name());
-				Entity newStatue = getPlayerStatues(player.getUniqueId()).get(statueName);
-				if (newStatue instanceof LivingEntity newLivingEntity) {
-					newLivingEntity.teleport(location);
-					String newId = getStatueId(newLivingEntity);
-					if (newId != null) statueLookupMap.remove(newId);
-					if (oldStatueId != null) {
-						newLivingEntity.getPersistentDataContainer().set(STATUE_ID_KEY, PersistentDataType.STRING, oldStatueId);
-						statueLookupMap.put(oldStatueId, new StatueInfo(player.getUniqueId(), statueName));
-					}
-					return true;
-				}
+		Statue statue = registry.get(player.getUniqueId(), statueName);
+		StatueData current = statue != null ? statue.data() : null;
+		if (current != null) {
+			String limitMessage = densityLimitMessage(player, statue, player.getLocation());
+			if (limitMessage != null) {
+				player.sendMessage(limitMessage);
+				return true;
 			}
+			Location location = player.getLocation();
+			applyStatueEdit(statue, new StatueData(location.getWorld().getName(), location.getX(), location.getY(), location.getZ(),
+					location.getYaw(), location.getPitch(), current.entityType(), current.statueId()));
+			player.sendMessage("Statue '" + statueName + "' moved successfully.");
+			return true;
 		}
 		return false;
 	}
 
 	/**
-	 * Removes all statues from the server and clears all data structures.
-	 * Called when the plugin is disabled.
+	 * Checks the configured statue density limits for placing a statue at a location.
+	 * The counters are kept by the registry and the chunk index, so no statues are
+	 * counted here. Players with "mobstatues.bypasslimits" are never limited.
+	 * @param player The player placing the statue.
+	 * @param existing The statue being moved or replaced, which does not count against
+	 *                 limits it already falls under, or null for a new statue.
+	 * @param target Where the statue will stand.
+	 * @return The message explaining the exceeded limit, or null if none is exceeded.
+	 */
+	private String densityLimitMessage(Player player, Statue existing, Location target) {
+		if (player.hasPermission("mobstatues.bypasslimits")) return null;
+		String worldName = target.getWorld().getName();
+		long chunkKey = StatueChunkIndex.chunkKey(target.getX(), target.getZ());
+		boolean sameWorld = existing != null && worldName.equals(existing.worldName());
+		boolean sameChunk = sameWorld && existing.chunkKey() == chunkKey;
+		if (perPlayerLimit > 0 && existing == null && registry.countOwnedBy(player.getUniqueId()) >= perPlayerLimit) {
+			return "You have reached the limit of " + perPlayerLimit + " statues.";
+		}
+		if (perChunkLimit > 0 && !sameChunk && chunkIndex.count(worldName, chunkKey) >= perChunkLimit) {
+			return "This chunk already has the maximum of " + perChunkLimit + " statues.";
+		}
+		if (perWorldLimit > 0 && !sameWorld && chunkIndex.count(worldName) >= perWorldLimit) {
+			return "This world already has the maximum of " + perWorldLimit + " statues.";
+		}
+		return null;
+	}
+
+	/**
+	 * Reports the number of statues per world and the chunks holding the most statues.
+	 * @param sender The command sender.
+	 * @param limit The most chunks to list.
+	 */
+	private void reportDensity(CommandSender sender, int limit) {
+		if (chunkIndex.worldCounts().isEmpty()) {
+			sender.sendMessage("There are no statues.");
+			return;
+		}
+		sender.sendMessage("Statues per world:");
+		for (Object2IntOpenHashMap.Entry<String> world : chunkIndex.worldCounts().object2IntEntrySet()) {
+			sender.sendMessage("- " + world.getKey() + ": " + world.getIntValue()
+					+ (perWorldLimit > 0 ? " / " + perWorldLimit : ""));
+		}
+		sender.sendMessage("Densest chunks:");
+		for (StatueChunkIndex.ChunkDensity chunk : chunkIndex.densest(limit)) {
+			int chunkX = StatueChunkIndex.chunkX(chunk.chunkKey());
+			int chunkZ = StatueChunkIndex.chunkZ(chunk.chunkKey());
+			sender.sendMessage("- " + chunk.worldName() + " chunk " + chunkX + ", " + chunkZ + " (blocks " + (chunkX << 4) + ", "
+					+ (chunkZ << 4) + "): " + chunk.count() + (perChunkLimit > 0 ? " / " + perChunkLimit : "") + " statues");
+		}
+	}
+
+	/**
+	 * Removes all statue entities from the server and clears all data structures.
+	 * Called when the plugin is disabled, after the spawn scheduler has stopped, so the
+	 * entities are removed directly rather than through the tick budget. A disabled
+	 * plugin cannot schedule region work, so on region-threaded servers the entities are
+	 * left to vanish with their chunks; they are never saved. Persistent statue entities
+	 * are only detached and stay in the world, to be reattached on the next start.
 	 */
 	private void removeAllStatues() {
-		for (Long2ObjectOpenHashMap<Object2ObjectOpenHashMap<String, Entity>> secondMap : playerStatueMap.values()) {
-			for (Object2ObjectOpenHashMap<String, Entity> playerStatues : secondMap.values()) {
-				for (Entity statue : playerStatues.values()) {
-					if (statue != null) {
-						String statueId = getStatueId(statue);
-						if (statueId != null) {
-							statueLookupMap.remove(statueId);
-						}
-						statue.remove();
-					}
-				}
-				playerStatues.clear();
+		for (Statue statue : registry.statues()) {
+			if (persistentEntities) {
+				statue.takeEntity();
+			} else {
+				despawnStatueEntity(statue);
 			}
-			secondMap.clear();
 		}
-		playerStatueMap.clear();
+		registry.clear();
+		entityIndex.clear();
+		chunkIndex.clear();
 	}
 
 	/**
@@ -495,21 +1487,16 @@ public class MobStatues extends JavaPlugin implements Listener, TabCompleter {
 	 * @param statueName The name of the statue.
 	 */
 	private void removeStatue(UUID playerId, String statueName) {
-		Object2ObjectOpenHashMap<String, Entity> playerStatues = getPlayerStatues(playerId);
-		if (playerStatues != null) {
-			Entity statue = playerStatues.remove(statueName);
-			if (statue != null) {
-				String statueId = getStatueId(statue);
-				if (statueId != null) {
-					statueLookupMap.remove(statueId);
-				}
-				removeOldStatue(statue);
-			}
+		Statue statue = registry.get(playerId, statueName);
+		if (statue != null) {
+			unregisterStatue(statue);
+			spawnScheduler.queueDespawn(statue);
 		}
 	}
 
 	/**
 	 * Handles the /msdel command logic. Removes the specified statue from the player's inventory and config.
+	 * Statues in unloaded chunks have no entity, so only their record is removed.
 	 * @param sender The command sender.
 	 * @param statueName The name of the statue to remove.
 	 */
@@ -519,44 +1506,678 @@ public class MobStatues extends JavaPlugin implements Listener, TabCompleter {
 			return;
 		}
 		UUID playerId = player.getUniqueId();
-		Object2ObjectOpenHashMap<String, Entity> playerStatues = getPlayerStatues(playerId);
-		if (playerStatues == null) {
+		Statue statue = registry.get(playerId, statueName);
+		if (statue == null && registry.ownedBy(playerId).isEmpty()) {
 			sender.sendMessage("You don't have any statues.");
 			return;
 		}
-		Entity statue = playerStatues.remove(statueName);
 		if (statue == null) {
 			sender.sendMessage("You don't have a statue named '" + statueName + "'.");
 			return;
 		}
-		Location statueLocation = statue.getLocation();
-		Chunk chunk = statueLocation.getChunk();
-		if (!chunk.isLoaded()) {
-			sender.sendMessage("Warning: The chunk containing the statue is not loaded. The statue will not be removed.");
+		unregisterStatue(statue);
+		spawnScheduler.queueDespawn(statue);
+		removeStatueFromConfig(playerId, statueName);
+		sender.sendMessage("Statue '" + statueName + "' removed.");
+	}
+
+	/**
+	 * Handles /msadmin. Purges, rotations and translations select statues by filter and
+	 * run as a {@link StatueJob} within "admin.job-tick-budget-millis" per tick, so a
+	 * large cleanup never stalls the server. Density limits do not apply.
+	 * @param sender The command sender.
+	 * @param args The subcommand, its arguments, then filters.
+	 */
+	private void adminCommand(CommandSender sender, String[] args) {
+		String operation = args[0].toLowerCase();
+		if (operation.equals("cancel")) {
+			StatueJob job = adminJob.get();
+			if (job != null) {
+				job.cancel();
+			} else {
+				sender.sendMessage("No statue job is running.");
+			}
+			return;
+		}
+		int arguments = adminArguments(operation);
+		if (arguments < 0 || args.length < 1 + arguments) {
+			sender.sendMessage("Usage: /msadmin <purge|rotate <degrees>|translate <dx> <dy> <dz>|cancel> [filters]");
+			return;
+		}
+		double[] values = new double[arguments];
+		try {
+			for (int i = 0; i < arguments; i++) {
+				values[i] = Double.parseDouble(args[1 + i]);
+			}
+		} catch (NumberFormatException e) {
+			sender.sendMessage("Invalid number. Please provide valid numbers.");
+			return;
+		}
+		StatueFilter filter;
+		try {
+			filter = StatueFilter.parse(args, 1 + arguments);
+		} catch (IllegalArgumentException e) {
+			sender.sendMessage(e.getMessage());
+			return;
+		}
+		if (filter.isEmpty()) {
+			sender.sendMessage("Give at least one filter; world:<name> selects a whole world. " + StatueFilter.USAGE);
 			return;
 		}
-		String statueId = getStatueId(statue);
-		if (statueId != null) {
-			statueLookupMap.remove(statueId);
+		StatueJob.Action action = switch (operation) {
+			case "purge" -> (statue, current) -> {
+				unregisterStatue(statue);
+				spawnScheduler.queueDespawn(statue);
+				return null;
+			};
+			case "rotate" -> (statue, current) -> {
+				StatueData data = current.data();
+				StatueData rotated = data.withRotation(normalizeYaw(data.yaw() + values[0]), data.pitch());
+				updateStatue(statue, rotated);
+				return rotated;
+			};
+			default -> (statue, current) -> {
+				StatueData data = current.data();
+				StatueData moved = data.withPosition(data.x() + values[0], data.y() + values[1], data.z() + values[2]);
+				updateStatue(statue, moved);
+				return moved;
+			};
+		};
+		StatueJob job = new StatueJob(operation, sender, registry, persistence, filter, action, adminJobBudgetMillis,
+				() -> adminJob.set(null));
+		if (!adminJob.compareAndSet(null, job)) {
+			sender.sendMessage("A statue job is already running. Use /msadmin cancel to stop it.");
+			return;
 		}
-		removeOldStatue(statue);
+		job.start(statueScheduler);
+	}
+
+	/**
+	 * @param operation An /msadmin subcommand.
+	 * @return How many numbers the subcommand takes before its filters, or -1 if it is
+	 *         not a job.
+	 */
+	private static int adminArguments(String operation) {
+		return switch (operation) {
+			case "purge" -> 0;
+			case "rotate" -> 1;
+			case "translate" -> 3;
+			default -> -1;
+		};
+	}
 
-		File playersDataFolder = new File(getDataFolder(), "players");
-		File playerDataFile = new File(playersDataFolder, playerId.toString() + ".yml");
-		if (playerDataFile.exists()) {
-			FileConfiguration playerDataConfig = YamlConfiguration.loadConfiguration(playerDataFile);
-			ConfigurationSection statuesSection = playerDataConfig.getConfigurationSection("statues");
-			if (statuesSection != null) {
-				statuesSection.set(statueName, null);
+	/**
+	 * @param yaw A yaw angle in degrees.
+	 * @return The same angle between -180 and 180 degrees.
+	 */
+	private static float normalizeYaw(double yaw) {
+		double normalized = yaw % 360.0;
+		if (normalized >= 180.0) {
+			normalized -= 360.0;
+		} else if (normalized < -180.0) {
+			normalized += 360.0;
+		}
+		return (float) normalized;
+	}
+
+	/**
+	 * Handles /msgroup. A group holds statues of the player who created it and a pivot,
+	 * which starts at the player's position. Moving and rotating a group changes every
+	 * member in the same tick and saves them together.
+	 * @param player The player.
+	 * @param args The subcommand and its arguments.
+	 */
+	private void groupCommand(Player player, String[] args) {
+		UUID playerId = player.getUniqueId();
+		String operation = args[0].toLowerCase();
+		if (operation.equals("list")) {
+			listGroups(player, args.length > 1 ? args[1].toLowerCase() : null);
+			return;
+		}
+		if (args.length < 2) {
+			player.sendMessage(GROUP_USAGE);
+			return;
+		}
+		String groupName = args[1].toLowerCase();
+		StatueGroups.Group group = groups.get(playerId, groupName);
+		if (operation.equals("create")) {
+			if (args.length != 3) {
+				player.sendMessage(GROUP_USAGE);
+			} else if (!GROUP_NAME.matcher(groupName).matches()) {
+				player.sendMessage("Group names may only contain letters, digits, '-' and '_', up to 32 characters.");
+			} else if (group != null) {
+				player.sendMessage("You already have a group named '" + groupName + "'.");
+			} else {
+				Location pivot = player.getLocation();
+				group = new StatueGroups.Group(groupName, pivot.getWorld().getName(), pivot.getX(), pivot.getY(), pivot.getZ(), new ObjectArrayList<>());
+				if (changeGroupMembers(player, group, args[2].toLowerCase(), true)) {
+					player.sendMessage("Group '" + groupName + "' created. It turns around where you are standing.");
+				}
+			}
+			return;
+		}
+		if (group == null) {
+			player.sendMessage("You don't have a group named '" + groupName + "'.");
+			return;
+		}
+		switch (operation) {
+			case "add", "remove" -> {
+				if (args.length != 3) {
+					player.sendMessage(GROUP_USAGE);
+				} else {
+					changeGroupMembers(player, group, args[2].toLowerCase(), operation.equals("add"));
+				}
+			}
+			case "pivot" -> {
+				Location pivot = player.getLocation();
+				groups.put(playerId, group.withPivot(pivot.getWorld().getName(), pivot.getX(), pivot.getY(), pivot.getZ()));
+				saveGroups();
+				player.sendMessage("Group '" + groupName + "' now turns around where you are standing.");
+			}
+			case "move" -> moveGroup(player, group);
+			case "rotate" -> {
+				double degrees;
 				try {
-					playerDataConfig.save(playerDataFile);
-				} catch (IOException e) {
-					getLogger().warning("Failed to save player data for player " + playerId);
-					e.printStackTrace();
+					degrees = args.length == 3 ? Double.parseDouble(args[2]) : Double.NaN;
+				} catch (NumberFormatException e) {
+					degrees = Double.NaN;
+				}
+				if (Double.isNaN(degrees) || Double.isInfinite(degrees)) {
+					player.sendMessage("Usage: /msgroup rotate <group> <degrees>");
+				} else {
+					rotateGroup(player, group, degrees);
 				}
 			}
+			case "delete" -> {
+				groups.remove(playerId, groupName);
+				saveGroups();
+				player.sendMessage("Group '" + groupName + "' deleted. Its statues were kept.");
+			}
+			default -> player.sendMessage(GROUP_USAGE);
+		}
+	}
+
+	/**
+	 * Adds statues to or removes them from a group and stores the group.
+	 * @param player The player who owns the group.
+	 * @param group The group.
+	 * @param target A statue name, a comma-separated list of names, or a prefix ending in '*'.
+	 * @param add True to add the statues, false to remove them.
+	 * @return True if the group was stored.
+	 */
+	private boolean changeGroupMembers(Player player, StatueGroups.Group group, String target, boolean add) {
+		UUID playerId = player.getUniqueId();
+		ObjectArrayList<String> members = new ObjectArrayList<>(group.members());
+		ObjectList<Statue> statues = resolveStatues(playerId, registry.ownedBy(playerId), target);
+		if (statues.isEmpty()) {
+			player.sendMessage("You don't have a statue named '" + target + "'.");
+			return false;
+		}
+		int changed = 0;
+		for (Statue statue : statues) {
+			String name = statue.name();
+			if (add && !members.contains(name)) {
+				members.add(name);
+				changed++;
+			} else if (!add && members.remove(name)) {
+				changed++;
+			}
+		}
+		if (members.size() > maxGroupMembers) {
+			player.sendMessage("A group can hold at most " + maxGroupMembers + " statues.");
+			return false;
+		}
+		groups.put(playerId, group.withMembers(members));
+		saveGroups();
+		player.sendMessage((add ? "Added " : "Removed ") + changed + " statues " + (add ? "to" : "from") + " group '" + group.name()
+				+ "', which now holds " + members.size() + ".");
+		return true;
+	}
+
+	/**
+	 * Lists a player's groups, or the members of one group.
+	 * @param player The player.
+	 * @param groupName The group to list, or null for all groups.
+	 */
+	private void listGroups(Player player, String groupName) {
+		if (groupName == null) {
+			ObjectList<StatueGroups.Group> owned = groups.ownedBy(player.getUniqueId());
+			if (owned.isEmpty()) {
+				player.sendMessage("You don't have any statue groups.");
+				return;
+			}
+			owned.sort((a, b) -> a.name().compareTo(b.name()));
+			player.sendMessage("Your statue groups:");
+			for (StatueGroups.Group group : owned) {
+				player.sendMessage("- " + group.name() + " (" + group.members().size() + " statues)");
+			}
+			return;
+		}
+		StatueGroups.Group group = groups.get(player.getUniqueId(), groupName);
+		if (group == null) {
+			player.sendMessage("You don't have a group named '" + groupName + "'.");
+			return;
+		}
+		player.sendMessage("Group '" + group.name() + "' turns around " + group.worldName() + " " + Math.round(group.x()) + ", "
+				+ Math.round(group.y()) + ", " + Math.round(group.z()) + ":");
+		for (String member : group.members()) {
+			player.sendMessage("- " + member);
+		}
+	}
+
+	/**
+	 * Moves a group so that its pivot ends up where the player stands, keeping every
+	 * member's offset from the pivot and its rotation. Refused if a member stands in
+	 * another world than the pivot.
+	 * @param player The player who owns the group.
+	 * @param group The group.
+	 */
+	private void moveGroup(Player player, StatueGroups.Group group) {
+		Location target = player.getLocation();
+		String worldName = target.getWorld().getName();
+		double dx = target.getX() - group.x();
+		double dy = target.getY() - group.y();
+		double dz = target.getZ() - group.z();
+		ObjectArrayList<Statue> statues = new ObjectArrayList<>();
+		ObjectArrayList<StatueData> targets = new ObjectArrayList<>();
+		ObjectArrayList<String> elsewhere = new ObjectArrayList<>();
+		for (String member : group.members()) {
+			Statue statue = registry.get(player.getUniqueId(), member);
+			StatueData data = statue != null ? statue.data() : null;
+			if (data == null) continue;
+			if (!data.worldName().equals(group.worldName())) {
+				elsewhere.add(member);
+				continue;
+			}
+			statues.add(statue);
+			targets.add(new StatueData(worldName, data.x() + dx, data.y() + dy, data.z() + dz, data.yaw(), data.pitch(),
+					data.entityType(), data.statueId()));
+		}
+		if (refuseMembersElsewhere(player, group, "moved", elsewhere) || !applyGroupEdit(player, group, statues, targets)) return;
+		groups.put(player.getUniqueId(), group.withPivot(worldName, target.getX(), target.getY(), target.getZ()));
+		saveGroups();
+		player.sendMessage("Group '" + group.name() + "' moved (" + statues.size() + " statues).");
+	}
+
+	/**
+	 * Turns a group around its pivot: each member is carried around the pivot on the
+	 * horizontal plane and turned by the same angle, so the group keeps its layout.
+	 * Refused if a member stands in another world than the pivot.
+	 * @param player The player who owns the group.
+	 * @param group The group.
+	 * @param degrees The angle, clockwise seen from above like yaw.
+	 */
+	private void rotateGroup(Player player, StatueGroups.Group group, double degrees) {
+		double radians = Math.toRadians(degrees);
+		double cos = Math.cos(radians);
+		double sin = Math.sin(radians);
+		if (degrees % 90.0 == 0.0) {
+			cos = Math.rint(cos);
+			sin = Math.rint(sin);
+		}
+		ObjectArrayList<Statue> statues = new ObjectArrayList<>();
+		ObjectArrayList<StatueData> targets = new ObjectArrayList<>();
+		ObjectArrayList<String> elsewhere = new ObjectArrayList<>();
+		for (String member : group.members()) {
+			Statue statue = registry.get(player.getUniqueId(), member);
+			StatueData data = statue != null ? statue.data() : null;
+			if (data == null) continue;
+			if (!data.worldName().equals(group.worldName())) {
+				elsewhere.add(member);
+				continue;
+			}
+			double offsetX = data.x() - group.x();
+			double offsetZ = data.z() - group.z();
+			statues.add(statue);
+			targets.add(data.withPosition(group.x() + offsetX * cos - offsetZ * sin, data.y(), group.z() + offsetX * sin + offsetZ * cos)
+					.withRotation(normalizeYaw(data.yaw() + degrees), data.pitch()));
+		}
+		if (refuseMembersElsewhere(player, group, "rotated", elsewhere)) return;
+		if (applyGroupEdit(player, group, statues, targets)) {
+			player.sendMessage("Group '" + group.name() + "' rotated by " + degrees + " degrees (" + statues.size() + " statues).");
+		}
+	}
+
+	/**
+	 * Refuses a group move or rotation if any member stands in a world other than the
+	 * group's pivot, since its offset from the pivot would mix coordinates of two worlds.
+	 * @param player The player who owns the group.
+	 * @param group The group.
+	 * @param action What the group would have been, such as "moved".
+	 * @param elsewhere The names of the members outside the pivot's world.
+	 * @return True if the command was refused.
+	 */
+	private boolean refuseMembersElsewhere(Player player, StatueGroups.Group group, String action, ObjectList<String> elsewhere) {
+		if (elsewhere.isEmpty()) return false;
+		player.sendMessage("Group '" + group.name() + "' can't be " + action + ": " + String.join(", ", elsewhere)
+				+ (elsewhere.size() == 1 ? " is" : " are") + " not in the pivot's world '" + group.worldName()
+				+ "'. Remove " + (elsewhere.size() == 1 ? "it" : "them") + " from the group or set the pivot with /msgroup pivot in their world.");
+		return true;
+	}
+
+	/**
+	 * Applies new states to the members of a group in one pass, teleporting or turning
+	 * each entity in place where possible, and commits them as one batch so the owner's
+	 * file is written once. Nothing changes if the group would break a density limit.
+	 * @param player The player who owns the group.
+	 * @param group The group.
+	 * @param statues The member statues.
+	 * @param targets The new state of each member statue.
+	 * @return False if the edit was refused.
+	 */
+	private boolean applyGroupEdit(Player player, StatueGroups.Group group, ObjectList<Statue> statues, ObjectList<StatueData> targets) {
+		if (statues.isEmpty()) {
+			player.sendMessage("Group '" + group.name() + "' has no statues.");
+			return false;
+		}
+		String limitMessage = groupLimitMessage(player, statues, targets);
+		if (limitMessage != null) {
+			player.sendMessage(limitMessage);
+			return false;
+		}
+		StatuePersistence.Batch batch = new StatuePersistence.Batch();
+		for (int i = 0; i < statues.size(); i++) {
+			StatueDescriptor current = registry.describe(statues.get(i));
+			if (current != null && updateStatue(statues.get(i), targets.get(i))) {
+				batch.save(current.ownerId(), current.name(), targets.get(i));
+			}
+		}
+		persistence.commit(batch);
+		return true;
+	}
+
+	/**
+	 * Checks the per-chunk and per-world limits for a group edit, counting every member
+	 * that would arrive in a chunk or world it is not already in.
+	 * @return The message explaining the exceeded limit, or null if none is exceeded.
+	 */
+	private String groupLimitMessage(Player player, ObjectList<Statue> statues, ObjectList<StatueData> targets) {
+		if (player.hasPermission("mobstatues.bypasslimits") || (perChunkLimit <= 0 && perWorldLimit <= 0)) return null;
+		Object2IntOpenHashMap<String> arrivingInChunk = new Object2IntOpenHashMap<>();
+		Object2IntOpenHashMap<String> arrivingInWorld = new Object2IntOpenHashMap<>();
+		for (int i = 0; i < statues.size(); i++) {
+			StatueData current = statues.get(i).data();
+			if (current == null) continue;
+			StatueData target = targets.get(i);
+			long chunkKey = StatueChunkIndex.chunkKey(target.x(), target.z());
+			boolean sameWorld = current.worldName().equals(target.worldName());
+			if (!sameWorld) {
+				arrivingInWorld.addTo(target.worldName(), 1);
+			}
+			if (!sameWorld || StatueChunkIndex.chunkKey(current.x(), current.z()) != chunkKey) {
+				arrivingInChunk.addTo(target.worldName() + ":" + chunkKey, 1);
+			}
+		}
+		for (StatueData target : targets) {
+			String worldName = target.worldName();
+			long chunkKey = StatueChunkIndex.chunkKey(target.x(), target.z());
+			int arriving = arrivingInChunk.getInt(worldName + ":" + chunkKey);
+			if (perChunkLimit > 0 && arriving > 0 && chunkIndex.count(worldName, chunkKey) + arriving > perChunkLimit) {
+				return "That would put more than the maximum of " + perChunkLimit + " statues in one chunk.";
+			}
+			arriving = arrivingInWorld.getInt(worldName);
+			if (perWorldLimit > 0 && arriving > 0 && chunkIndex.count(worldName) + arriving > perWorldLimit) {
+				return "That would put more than the maximum of " + perWorldLimit + " statues in this world.";
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Writes the groups file in the background if a group changed.
+	 */
+	private void saveGroups() {
+		statueScheduler.runAsync(this::writeGroups);
+	}
+
+	private void writeGroups() {
+		try {
+			groups.save();
+		} catch (IOException e) {
+			getLogger().warning("Failed to save statue groups.");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Resolves an archive name to a file in the transfers folder.
+	 * @param name The archive name given to the command.
+	 * @return The file, or null if the name is not allowed.
+	 */
+	private File transferFile(String name) {
+		if (!ARCHIVE_NAME.matcher(name).matches()) return null;
+		return new File(new File(getDataFolder(), TRANSFER_FOLDER), name);
+	}
+
+	/**
+	 * Handles /msexport. The registry is snapshotted a batch at a time and each matching
+	 * statue is streamed to the archive on a background thread, so the export neither
+	 * blocks the server nor copies every statue at once.
+	 * @param sender The command sender.
+	 * @param args The archive name followed by filters.
+	 */
+	private void exportStatues(CommandSender sender, String[] args) {
+		File file = transferFile(args[0]);
+		if (file == null) {
+			sender.sendMessage("Archive names may only contain letters, digits, '.', '-' and '_'.");
+			return;
+		}
+		StatueFilter filter;
+		try {
+			filter = StatueFilter.parse(args, 1);
+		} catch (IllegalArgumentException e) {
+			sender.sendMessage(e.getMessage());
+			return;
+		}
+		if (!transferRunning.compareAndSet(false, true)) {
+			sender.sendMessage("A statue import or export is already running.");
+			return;
+		}
+		sender.sendMessage("Exporting statues to " + TRANSFER_FOLDER + "/" + file.getName() + "...");
+		statueScheduler.runAsync(() -> {
+			long start = System.nanoTime();
+			String result;
+			file.getParentFile().mkdirs();
+			try (StatueArchive.Writer writer = new StatueArchive.Writer(file)) {
+				ObjectArrayList<StatueDescriptor> batch = new ObjectArrayList<>(EXPORT_BATCH);
+				int slot = 0;
+				while (slot >= 0) {
+					batch.clear();
+					slot = registry.describe(slot, EXPORT_BATCH, batch);
+					for (StatueDescriptor statue : batch) {
+						if (filter.matches(statue.ownerId(), statue.data())) {
+							writer.write(statue.ownerId(), statue.name(), statue.data());
+						}
+					}
+				}
+				long bytes = writer.commit();
+				result = "Exported " + writer.written() + " statues to " + file.getName() + " (" + bytes / 1024L + " KB) in "
+						+ (System.nanoTime() - start) / 1_000_000L + " ms.";
+			} catch (IOException e) {
+				getLogger().warning("Failed to export statues to " + file.getName() + ".");
+				e.printStackTrace();
+				result = "Failed to export statues: " + e.getMessage();
+			} finally {
+				transferRunning.set(false);
+			}
+			sendFromBackground(sender, result);
+		});
+	}
+
+	/**
+	 * Handles /msimport. The archive is read on a background thread and handed to the
+	 * server thread in batches of "transfer.import-batch-size" statues; spawns go
+	 * through the spawn scheduler's tick budget. Statues that already exist are kept
+	 * unless "replace" is given, and statue IDs that are already taken are replaced.
+	 * Density limits do not apply to imports.
+	 * @param sender The command sender.
+	 * @param args The archive name, optionally "replace", then filters.
+	 */
+	private void importStatues(CommandSender sender, String[] args) {
+		File file = transferFile(args[0]);
+		if (file == null || !file.isFile()) {
+			sender.sendMessage("There is no archive named '" + args[0] + "' in the " + TRANSFER_FOLDER + " folder.");
+			return;
+		}
+		boolean replace = args.length > 1 && args[1].equalsIgnoreCase("replace");
+		StatueFilter filter;
+		try {
+			filter = StatueFilter.parse(args, replace ? 2 : 1);
+		} catch (IllegalArgumentException e) {
+			sender.sendMessage(e.getMessage());
+			return;
+		}
+		if (!transferRunning.compareAndSet(false, true)) {
+			sender.sendMessage("A statue import or export is already running.");
+			return;
+		}
+		sender.sendMessage("Importing statues from " + TRANSFER_FOLDER + "/" + file.getName() + "...");
+		statueScheduler.runAsync(() -> {
+			String result;
+			try {
+				result = readImport(sender, file, filter, replace);
+			} catch (IOException e) {
+				getLogger().warning("Failed to import statues from " + file.getName() + ".");
+				e.printStackTrace();
+				result = "Failed to import statues: " + e.getMessage();
+			} finally {
+				transferRunning.set(false);
+			}
+			sendFromBackground(sender, result);
+		});
+	}
+
+	/**
+	 * Reads an archive and submits its statues in batches. Runs on a background thread.
+	 * @return The summary for the command sender.
+	 */
+	private String readImport(CommandSender sender, File file, StatueFilter filter, boolean replace) throws IOException {
+		long start = System.nanoTime();
+		ImportProgress progress = new ImportProgress(sender);
+		Semaphore inFlight = new Semaphore(IMPORT_BATCHES_IN_FLIGHT);
+		int invalid = 0;
+		int filtered = 0;
+		int malformed;
+		try (StatueArchive.Reader reader = new StatueArchive.Reader(file)) {
+			ObjectArrayList<StatueDescriptor> batch = new ObjectArrayList<>(importBatchSize);
+			while (reader.next()) {
+				StatueData data = reader.data();
+				EntityType entityType = statueType(data);
+				if (entityType == null || data.worldName().isEmpty() || !persistence.store().supportsName(reader.name())) {
+					invalid++;
+					continue;
+				}
+				if (!filter.matches(reader.ownerId(), data)) {
+					filtered++;
+					continue;
+				}
+				batch.add(new StatueDescriptor(reader.ownerId(), reader.name(), entityType, data));
+				if (batch.size() == importBatchSize) {
+					submitImportBatch(batch, replace, progress, inFlight);
+					batch = new ObjectArrayList<>(importBatchSize);
+				}
+			}
+			if (!batch.isEmpty()) {
+				submitImportBatch(batch, replace, progress, inFlight);
+			}
+			malformed = reader.malformed();
+		}
+		acquireWhileEnabled(inFlight, IMPORT_BATCHES_IN_FLIGHT);
+		return "Imported " + progress.imported + " statues from " + file.getName() + " in " + (System.nanoTime() - start) / 1_000_000L + " ms ("
+				+ progress.replaced + " replaced, " + progress.skipped + " already existed, " + filtered + " filtered out, "
+				+ (invalid + malformed) + " invalid).";
+	}
+
+	/**
+	 * Waits for room and hands a batch of imported statues to the server thread.
+	 */
+	private void submitImportBatch(ObjectArrayList<StatueDescriptor> batch, boolean replace, ImportProgress progress, Semaphore inFlight) throws IOException {
+		acquireWhileEnabled(inFlight, 1);
+		if (!isEnabled()) {
+			throw new IOException("The plugin was disabled during the import.");
+		}
+		statueScheduler.runGlobal(() -> {
+			try {
+				installImported(batch, replace, progress);
+			} finally {
+				inFlight.release();
+			}
+		});
+	}
+
+	/**
+	 * Sends a transfer's result from its background thread on the global thread. Nothing
+	 * is sent once the plugin has been disabled, since it can no longer schedule tasks;
+	 * the result has been logged if it was a failure.
+	 * @param sender The command sender.
+	 * @param message The message.
+	 */
+	private void sendFromBackground(CommandSender sender, String message) {
+		if (!isEnabled()) return;
+		statueScheduler.runGlobal(() -> sender.sendMessage(message));
+	}
+
+	/**
+	 * Takes permits, giving up if the plugin is disabled while waiting, because its
+	 * queued tasks are then dropped and would never return them.
+	 */
+	private void acquireWhileEnabled(Semaphore semaphore, int permits) throws IOException {
+		try {
+			while (!semaphore.tryAcquire(permits, 1L, TimeUnit.SECONDS)) {
+				if (!isEnabled()) {
+					throw new IOException("The plugin was disabled during the import.");
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("The import was interrupted.");
+		}
+	}
+
+	/**
+	 * Registers a batch of imported statues and queues them for spawning and saving.
+	 * Runs on the server thread.
+	 */
+	private void installImported(ObjectArrayList<StatueDescriptor> batch, boolean replace, ImportProgress progress) {
+		for (StatueDescriptor descriptor : batch) {
+			UUID ownerId = descriptor.ownerId();
+			String name = descriptor.name();
+			Statue existing = registry.get(ownerId, name);
+			if (existing != null) {
+				if (!replace) {
+					progress.skipped++;
+					continue;
+				}
+				unregisterStatue(existing);
+				spawnScheduler.queueDespawn(existing);
+				progress.replaced++;
+			}
+			StatueData data = descriptor.data();
+			if (data.statueId() == StatueData.NO_ID || registry.containsId(data.statueId())) {
+				data = data.withStatueId(generateStatueId());
+			}
+			Statue statue = registerStatue(ownerId, name, descriptor.entityType(), data);
+			queueSpawnIfLoaded(statue);
+			persistence.queueSave(ownerId, name, data);
+			if (++progress.imported % IMPORT_PROGRESS_INTERVAL == 0) {
+				progress.sender.sendMessage("Imported " + progress.imported + " statues so far...");
+			}
+		}
+	}
+
+	/**
+	 * Counts of one import. Only changed on the server thread; the reading thread reads
+	 * them after taking back every batch permit.
+	 */
+	private static final class ImportProgress {
+		private final CommandSender sender;
+		private int imported;
+		private int replaced;
+		private int skipped;
+
+		ImportProgress(CommandSender sender) {
+			this.sender = sender;
 		}
-		sender.sendMessage("Statue '" + statueName + "' removed.");
 	}
 
 	/**
@@ -564,12 +2185,12 @@ public class MobStatues extends JavaPlugin implements Listener, TabCompleter {
 	 * @param playerId The UUID of the player.
 	 */
 	private void listPlayerStatues(UUID playerId) {
-		Object2ObjectOpenHashMap<String, Entity> playerStatues = getPlayerStatues(playerId);
-		if (playerStatues != null && !playerStatues.isEmpty()) {
+		ObjectList<String> names = statueNames(playerId);
+		if (!names.isEmpty()) {
 			Player player = Bukkit.getPlayer(playerId);
 			if (player != null) {
 				player.sendMessage("Your statues:");
-				for (String name : playerStatues.keySet()) {
+				for (String name : names) {
 					player.sendMessage("- " + name);
 				}
 			}
@@ -582,322 +2203,375 @@ public class MobStatues extends JavaPlugin implements Listener, TabCompleter {
 	}
 
 	/**
-	 * Loads all player statue data from files on plugin startup.
-	 * Reconstructs the maps and registers them in memory.
+	 * Lists the statues of every owner around a player, nearest first. The radius is
+	 * capped by "near.max-radius" and at most {@link #NEAR_LIST_LIMIT} statues are shown.
+	 * Each statue is read as one snapshot, and statues removed by another region thread
+	 * since the search are left out.
+	 * @param player The player to search around.
+	 * @param radius The search radius in blocks.
 	 */
-	private void loadPlayerStatuesData() {
-		File playersDataFolder = new File(getDataFolder(), "players");
-		if (!playersDataFolder.exists()) {
-			playersDataFolder.mkdirs();
-		}
-		File[] playerDataFiles = playersDataFolder.listFiles((dir, name) -> name.endsWith(".yml"));
-		if (playerDataFiles != null) {
-			for (File playerDataFile : playerDataFiles) {
-				String playerName = playerDataFile.getName().replace(".yml", "");
-				UUID playerId;
-				try {
-					playerId = UUID.fromString(playerName);
-				} catch (IllegalArgumentException e) {
-					continue;
-				}
-				FileConfiguration playerDataConfig = YamlConfiguration.loadConfiguration(playerDataFile);
-				ConfigurationSection statuesSection = playerDataConfig.getConfigurationSection("statues");
-				if (statuesSection != null) {
-					Object2ObjectOpenHashMap<String, Entity> playerStatues = new Object2ObjectOpenHashMap<>();
-					for (String statueName : statuesSection.getKeys(false)) {
-						Entity statue = loadStatueFromConfig(playerId, statueName, statuesSection.getConfigurationSection(statueName));
-						if (statue != null) {
-							playerStatues.put(statueName, statue);
-							String statueId = getStatueId(statue);
-							if (statueId != null) {
-								statueLookupMap.put(statueId, new StatueInfo(playerId, statueName));
-							}
-						}
-					}
-					if (updateStatueData(playerDataConfig, playerStatues)) {
-						File specificPlayerDataFile = new File(playersDataFolder, playerName + ".yml");
-						savePlayerData(specificPlayerDataFile, playerDataConfig);
-					}
-					if (!playerStatues.isEmpty()) {
-						long msb = getMsb(playerId);
-						long lsb = getLsb(playerId);
-						Long2ObjectOpenHashMap<Object2ObjectOpenHashMap<String, Entity>> secondMap = getOrCreateSecondMap(msb);
-						secondMap.put(lsb, playerStatues);
-					}
-				}
-			}
+	private void listNearbyStatues(Player player, double radius) {
+		double maxRadius = getConfig().getDouble("near.max-radius", 256.0);
+		if (radius <= 0.0 || radius > maxRadius) {
+			player.sendMessage("The radius must be between 0 and " + maxRadius + " blocks.");
+			return;
 		}
+		Location location = player.getLocation();
+		ObjectArrayList<Statue> statues = nearbyStatues(location, radius);
+		if (statues.isEmpty()) {
+			player.sendMessage("There are no statues within " + radius + " blocks.");
+			return;
+		}
+		player.sendMessage("Statues within " + radius + " blocks:");
+		int shown = Math.min(statues.size(), NEAR_LIST_LIMIT);
+		for (int i = 0; i < shown; i++) {
+			StatueDescriptor statue = registry.describe(statues.get(i));
+			if (statue == null) continue;
+			StatueData data = statue.data();
+			double dx = data.x() - location.getX();
+			double dy = data.y() - location.getY();
+			double dz = data.z() - location.getZ();
+			double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+			String owner = Bukkit.getOfflinePlayer(statue.ownerId()).getName();
+			player.sendMessage("- " + statue.name() + " (" + statue.entityType().name().toLowerCase() + ", "
+					+ String.format("%.1f", distance) + " blocks, owner " + (owner != null ? owner : statue.ownerId().toString()) + ")");
+		}
+		if (statues.size() > shown) {
+			player.sendMessage("... and " + (statues.size() - shown) + " more.");
+		}
+	}
+
+	/**
+	 * Finds the statues of every owner within a radius of a location, nearest first.
+	 * @param location The center of the search.
+	 * @param radius The search radius in blocks.
+	 * @return The statues within the radius, possibly empty.
+	 */
+	private ObjectArrayList<Statue> nearbyStatues(Location location, double radius) {
+		return chunkIndex.near(location.getWorld().getName(), location.getX(), location.getY(), location.getZ(), radius);
 	}
 
 	/**
-	 * Ensures that any statue missing the "entityName" config field is assigned one.
-	 * This updates the configuration file if needed.
-	 * @param playerDataConfig The player's data configuration.
-	 * @param playerStatues The statues owned by the player.
-	 * @return True if updates were made, false otherwise.
+	 * Reorders a player's statue names so that the statues nearest to the player come
+	 * first. Statues in other worlds, and statues removed by another region thread in the
+	 * meantime, keep their order at the end. Each statue's position is read as one
+	 * snapshot; an insertion sort over a reused distance buffer avoids a sort buffer per call.
+	 * @param player The player who owns the statues.
+	 * @param names The statue names to reorder.
 	 */
-	private boolean updateStatueData(FileConfiguration playerDataConfig, Object2ObjectOpenHashMap<String, Entity> playerStatues) {
-		boolean hasUpdates = false;
-		for (String statueName : playerStatues.keySet()) {
-			ConfigurationSection statueSection = playerDataConfig.getConfigurationSection("statues." + statueName);
-			if (statueSection != null && !statueSection.contains("entityName")) {
-				String randomName = generateRandomName();
-				statueSection.set("entityName", randomName);
-				hasUpdates = true;
-				getLogger().info("Added random name '" + randomName + "' for statue: " + statueName);
+	private void sortNearestFirst(Player player, ObjectList<String> names) {
+		int count = names.size();
+		if (count < 2) return;
+		double[] distances = completionDistances.get();
+		if (distances.length < count) {
+			distances = new double[Math.max(count, distances.length * 2)];
+			completionDistances.set(distances);
+		}
+		UUID playerId = player.getUniqueId();
+		Location location = player.getLocation();
+		String worldName = location.getWorld().getName();
+		for (int i = 0; i < count; i++) {
+			String name = names.get(i);
+			Statue statue = registry.get(playerId, name);
+			StatueData data = statue != null ? statue.data() : null;
+			double distance = Double.POSITIVE_INFINITY;
+			if (data != null && data.worldName().equals(worldName)) {
+				double dx = data.x() - location.getX();
+				double dy = data.y() - location.getY();
+				double dz = data.z() - location.getZ();
+				distance = dx * dx + dy * dy + dz * dz;
 			}
+			int j = i;
+			while (j > 0 && distances[j - 1] > distance) {
+				distances[j] = distances[j - 1];
+				names.set(j, names.get(j - 1));
+				j--;
+			}
+			distances[j] = distance;
+			names.set(j, name);
 		}
-		return hasUpdates;
 	}
 
 	/**
-	 * Saves the player's updated data configuration to disk.
-	 * @param playerDataFile The file to save to.
-	 * @param playerDataConfig The configuration to save.
+	 * Starts loading all player statue data from the statue store. Reading, decoding and
+	 * validating the stored statues runs on the loader's worker threads; registering the
+	 * statues and spawning entities for already loaded chunks is handed back to the
+	 * server thread once parsing has finished.
 	 */
-	private void savePlayerData(File playerDataFile, FileConfiguration playerDataConfig) {
-		try {
-			playerDataConfig.save(playerDataFile);
-		} catch (IOException e) {
-			getLogger().warning("Failed to save player data for file: " + playerDataFile.getName());
-			e.printStackTrace();
+	private void loadPlayerStatuesData() {
+		long start = System.nanoTime();
+		loader = new StatueLoader(getConfig().getInt("loading.threads", 0));
+		int threads = loader.threads();
+		loader.load(persistence.store(), this::describeStatue).whenComplete((descriptors, error) -> {
+			long parseNanos = System.nanoTime() - start;
+			if (error != null) {
+				getLogger().warning("Failed to load statue data.");
+				error.printStackTrace();
+				return;
+			}
+			if (!isEnabled()) return;
+			statueScheduler.runGlobal(() -> installStatues(descriptors, parseNanos, threads));
+		});
+	}
+
+	/**
+	 * Registers loaded statues in memory and in the chunk index. Spawns are only queued
+	 * for statues whose chunk is already loaded; the rest spawn when their chunk loads.
+	 * With persistent entities the loaded chunks are reattached instead, so only statues
+	 * whose saved entity is missing are spawned. Statues created by command while loading was in progress win over
+	 * stored statues of the same name. Statues stored without a numeric ID, including
+	 * those still carrying an old string ID, or whose ID is already taken, are assigned
+	 * a new one and queued for saving.
+	 * @param descriptors The validated statues.
+	 * @param parseNanos How long the worker phase took.
+	 * @param threads How many worker threads were used.
+	 */
+	private void installStatues(ObjectArrayList<StatueDescriptor> descriptors, long parseNanos, int threads) {
+		long start = System.nanoTime();
+		int queued = 0;
+		int assigned = 0;
+		int loaded = 0;
+		ObjectArrayList<Statue> installed = new ObjectArrayList<>(descriptors.size());
+		for (StatueDescriptor descriptor : descriptors) {
+			if (registry.get(descriptor.ownerId(), descriptor.name()) != null) continue;
+			loaded++;
+			StatueData data = descriptor.data();
+			if (data.statueId() == StatueData.NO_ID || registry.containsId(data.statueId())) {
+				data = data.withStatueId(generateStatueId());
+				persistence.queueSave(descriptor.ownerId(), descriptor.name(), data);
+				assigned++;
+			}
+			Statue statue = registerStatue(descriptor.ownerId(), descriptor.name(), descriptor.entityType(), data);
+			if (persistentEntities) {
+				installed.add(statue);
+			} else if (queueSpawnIfLoaded(statue)) {
+				queued++;
+			}
+		}
+		statuesInstalled = true;
+		if (persistentEntities) {
+			queued = reattachLoadedChunks(installed);
+		}
+		metrics.statuesLoaded.add(loaded);
+		metrics.loadTime.record(parseNanos + System.nanoTime() - start);
+		getLogger().info("Loaded " + descriptors.size() + " statues: parsed in " + parseNanos / 1_000_000L + " ms on "
+				+ threads + " threads, registered in " + (System.nanoTime() - start) / 1_000_000L + " ms on the main thread, "
+				+ (persistentEntities ? queued + " loaded chunks queued for reattaching saved entities (spawn queue depth "
+						: queued + " spawns queued (queue depth ")
+				+ spawnScheduler.queueDepth() + ", " + (markerPassengers ? "2 entities" : "1 entity") + " per statue).");
+		if (assigned > 0) {
+			getLogger().info("Assigned new IDs to " + assigned + " statues.");
+		}
+		if (registry.size() > 0) {
+			getLogger().info("Statue registry: " + registry.size() + " statues, about " + registry.estimatedBytes() / registry.size() + " bytes per statue in arrays and indexes.");
+		}
+		if (integrityScanner != null) {
+			integrityScanner.start(statueScheduler);
 		}
 	}
 
 	/**
-	 * Loads a single statue from the player's configuration file.
-	 * Spawns and configures the entity as a statue.
+	 * Validates a stored statue and resolves its entity type. Runs on the loader's
+	 * worker threads; IDs are checked later on the server thread.
 	 * @param playerId The UUID of the player who owns the statue.
 	 * @param statueName The name of the statue.
-	 * @param statueSection The configuration section for this statue.
-	 * @return The spawned statue entity or null on failure.
+	 * @param data The stored data for this statue.
+	 * @return The statue descriptor or null if the data is invalid.
 	 */
-	private Entity loadStatueFromConfig(UUID playerId, String statueName, ConfigurationSection statueSection) {
-		if (statueSection == null) {
+	private StatueDescriptor describeStatue(UUID playerId, String statueName, StatueData data) {
+		if (data.worldName() == null) {
+			getLogger().warning("Missing world for statue '" + statueName + "'.");
 			return null;
 		}
-		String worldName = statueSection.getString("world");
-		double x = statueSection.getDouble("x");
-		double y = statueSection.getDouble("y");
-		double z = statueSection.getDouble("z");
-		float yaw = (float) statueSection.getDouble("yaw");
-		float pitch = (float) statueSection.getDouble("pitch");
-		if (Bukkit.getWorld(worldName) == null) {
+		EntityType entityType = statueType(data);
+		if (entityType == null) {
+			getLogger().warning("Invalid entity type for statue '" + statueName + "'.");
 			return null;
 		}
-		Location location = new Location(Bukkit.getWorld(worldName), x, y, z, yaw, pitch);
+		return new StatueDescriptor(playerId, statueName, entityType, data);
+	}
+
+	/**
+	 * Resolves a stored statue's entity type.
+	 * @param data The stored statue.
+	 * @return The entity type, or null if it is unknown or not a living entity.
+	 */
+	private static EntityType statueType(StatueData data) {
 		EntityType entityType;
 		try {
-			entityType = EntityType.valueOf(statueSection.getString("entityType"));
-		} catch (IllegalArgumentException e) {
-			getLogger().warning("Invalid entity type for statue '" + statueName + "'.");
-			return null;
-		}
-		if (entityType == null || !entityType.isAlive()) {
-			getLogger().warning("Invalid entity type for statue '" + statueName + "'.");
+			entityType = EntityType.valueOf(data.entityType());
+		} catch (IllegalArgumentException | NullPointerException e) {
 			return null;
 		}
+		return entityType.isAlive() ? entityType : null;
+	}
 
-		LivingEntity entity = (LivingEntity) location.getWorld().spawnEntity(location, entityType);
-		entity.setInvulnerable(true);
-		entity.setAI(false);
-		entity.setCollidable(false);
-		entity.setGravity(false);
-		entity.setSilent(true);
-		entity.setCustomNameVisible(false);
-		entity.setCustomName(null);
-
-		String customNameKey = "entityName";
-		String statueId = statueSection.getString(customNameKey);
-		if (statueId == null || statueId.isEmpty()) {
-			statueId = generateRandomName();
-			statueSection.set(customNameKey, statueId);
-			File playersDataFolder = new File(getDataFolder(), "players");
-			File playerDataFile = new File(playersDataFolder, playerId + ".yml");
-			if (playerDataFile.exists()) {
-				FileConfiguration playerDataConfig = YamlConfiguration.loadConfiguration(playerDataFile);
-				try {
-					playerDataConfig.set("statues." + statueName + "." + customNameKey, statueId);
-					playerDataConfig.save(playerDataFile);
-				} catch (IOException e) {
-					getLogger().warning("Failed to save player data for player " + playerId);
-					e.printStackTrace();
+	/**
+	 * Reattaches the saved entities of the loaded chunks that hold any of the given
+	 * statues, each chunk once and on the thread that owns it. Chunks whose entities
+	 * have not loaded yet are reattached when they do.
+	 * @param statues The newly registered statues.
+	 * @return The number of chunks queued.
+	 */
+	private int reattachLoadedChunks(ObjectArrayList<Statue> statues) {
+		ObjectOpenHashSet<String> seen = new ObjectOpenHashSet<>();
+		int queued = 0;
+		for (Statue statue : statues) {
+			StatueData data = statue.data();
+			if (data == null) continue;
+			String worldName = data.worldName();
+			long chunkKey = StatueChunkIndex.chunkKey(data.x(), data.z());
+			World world = Bukkit.getWorld(worldName);
+			int chunkX = StatueChunkIndex.chunkX(chunkKey);
+			int chunkZ = StatueChunkIndex.chunkZ(chunkKey);
+			if (world == null || !world.isChunkLoaded(chunkX, chunkZ) || !seen.add(worldName + ':' + chunkKey)) continue;
+			queued++;
+			statueScheduler.runAt(world, chunkX, chunkZ, () -> {
+				if (!world.isChunkLoaded(chunkX, chunkZ)) return;
+				Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+				if (chunk.isEntitiesLoaded()) {
+					reattachChunkStatues(chunk);
 				}
-			}
+			});
 		}
+		return queued;
+	}
 
-		entity.getPersistentDataContainer().set(STATUE_ID_KEY, PersistentDataType.STRING, statueId);
-
-		ArmorStand armorStand = location.getWorld().spawn(location, ArmorStand.class);
-		armorStand.setInvisible(true);
-		armorStand.setMarker(true);
-		entity.addPassenger(armorStand);
-
-		return entity;
+	/**
+	 * Queues a spawn for a statue if its chunk is loaded; the others spawn when their
+	 * chunk loads.
+	 * @param statue The statue.
+	 * @return True if a spawn was queued.
+	 */
+	private boolean queueSpawnIfLoaded(Statue statue) {
+		StatueData data = statue.data();
+		if (data == null) return false;
+		World world = Bukkit.getWorld(data.worldName());
+		long chunkKey = StatueChunkIndex.chunkKey(data.x(), data.z());
+		if (world == null || !world.isChunkLoaded(StatueChunkIndex.chunkX(chunkKey), StatueChunkIndex.chunkZ(chunkKey))) {
+			return false;
+		}
+		spawnScheduler.queueSpawn(statue);
+		return true;
 	}
 
 	/**
-	 * Saves all currently loaded player statues back to their respective configuration files.
+	 * Stops the autosave and writes every statue changed since its last run. Every edit
+	 * is queued when it happens, so statues that did not change are not written again.
 	 */
 	private void savePlayerStatuesData() {
-		File playersDataFolder = new File(getDataFolder(), "players");
-		if (!playersDataFolder.exists()) {
-			playersDataFolder.mkdirs();
-		}
-
-		for (long msb : playerStatueMap.keySet()) {
-			Long2ObjectOpenHashMap<Object2ObjectOpenHashMap<String, Entity>> secondMap = playerStatueMap.get(msb);
-			for (long lsb : secondMap.keySet()) {
-				Object2ObjectOpenHashMap<String, Entity> playerStatues = secondMap.get(lsb);
-				if (playerStatues == null) continue;
-				UUID playerId = new UUID(msb, lsb);
-				File playerDataFile = new File(playersDataFolder, playerId.toString() + ".yml");
-				FileConfiguration playerDataConfig = YamlConfiguration.loadConfiguration(playerDataFile);
-				ConfigurationSection statuesSection = playerDataConfig.createSection("statues");
-				for (String name : playerStatues.keySet()) {
-					Entity statue = playerStatues.get(name);
-					if (statue instanceof LivingEntity livingEntity) {
-						saveStatueToConfig(livingEntity, statuesSection.createSection(name));
-					}
-				}
-				try {
-					playerDataConfig.save(playerDataFile);
-				} catch (IOException e) {
-					getLogger().warning("Failed to save player data for player " + playerId);
-					e.printStackTrace();
-				}
-			}
-		}
+		long start = System.nanoTime();
+		persistence.shutdown();
+		metrics.saveTime.record(System.nanoTime() - start);
 	}
 
 	/**
-	 * Saves a single statue's state (location, type, ID) into a configuration section.
-	 * @param entity The statue entity.
-	 * @param statueSection The configuration section to write into.
+	 * Generates a random statue ID that is not used by any registered statue.
+	 * @return A new non-zero statue ID.
 	 */
-	private void saveStatueToConfig(LivingEntity entity, ConfigurationSection statueSection) {
-		statueSection.set("world", entity.getWorld().getName());
-		statueSection.set("x", entity.getLocation().getX());
-		statueSection.set("y", entity.getLocation().getY());
-		statueSection.set("z", entity.getLocation().getZ());
-		statueSection.set("yaw", entity.getLocation().getYaw());
-		statueSection.set("pitch", entity.getLocation().getPitch());
-		statueSection.set("entityType", entity.getType().name());
-		String statueId = getStatueId(entity);
-		if (statueId != null) {
-			statueSection.set("entityName", statueId);
-		}
+	long generateStatueId() {
+		long statueId;
+		do {
+			statueId = ThreadLocalRandom.current().nextLong();
+		} while (statueId == StatueData.NO_ID || registry.containsId(statueId));
+		return statueId;
 	}
 
 	/**
-	 * Generates a random 16-character alphanumeric string.
-	 * @return A randomly generated string.
+	 * Lists the names of a player's statues in alphabetical order.
+	 * @param playerId The UUID of the player.
+	 * @return The statue names, possibly empty.
 	 */
-	private String generateRandomName() {
-		StringBuilder sb = NAME_BUILDER.get();
-		sb.setLength(0);
-		for (int i = 0; i < 16; i++) {
-			int index = ThreadLocalRandom.current().nextInt(CHARACTERS.length);
-			sb.append(CHARACTERS[index]);
-		}
-		return sb.toString();
+	private ObjectList<String> statueNames(UUID playerId) {
+		ObjectList<String> names = new ObjectArrayList<>();
+		registry.collectNames(playerId, "", names);
+		return names;
 	}
 
 	@Override
 	public ObjectList<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
 		ObjectList<String> completions = new ObjectArrayList<>();
 		if (command.getName().equalsIgnoreCase("ms")) {
-			if (args.length >= 2) {
-				StringBuilder statueNameBuilder = new StringBuilder();
-				for (int i = 1; i < args.length; i++) {
-					if (i > 1) {
-						statueNameBuilder.append(" ");
-					}
-					statueNameBuilder.append(args[i]);
-				}
-				String statueName = statueNameBuilder.toString();
-				if (args[args.length - 1].isEmpty()) {
-					for (EntityType entityType : EntityType.values()) {
-						if (entityType.isAlive() && entityType.name().toLowerCase().startsWith(statueName)) {
-							completions.add(entityType.name().toLowerCase());
+			if (args.length == 2) {
+				livingTypeNames.collect(args[1].toLowerCase(), completions);
+			}
+		} else if (command.getName().equalsIgnoreCase("msdel") || command.getName().equalsIgnoreCase("msmove")) {
+			if (args.length == 1 && sender instanceof Player player) {
+				registry.collectNames(player.getUniqueId(), args[0].toLowerCase(), completions);
+				sortNearestFirst(player, completions);
+			}
+		} else if (command.getName().equalsIgnoreCase("msadjust")) {
+			if (args.length == 1 && sender instanceof Player player) {
+				registry.collectNames(player.getUniqueId(), args[0].toLowerCase(), completions);
+			}
+		} else if (command.getName().equalsIgnoreCase("msexport") || command.getName().equalsIgnoreCase("msimport")) {
+			boolean importing = command.getName().equalsIgnoreCase("msimport");
+			String prefix = args[args.length - 1].toLowerCase();
+			if (args.length == 1) {
+				String[] archives = importing ? new File(getDataFolder(), TRANSFER_FOLDER).list() : null;
+				if (archives != null) {
+					for (String archive : archives) {
+						if (archive.toLowerCase().startsWith(prefix) && !archive.endsWith(".tmp")) {
+							completions.add(archive);
 						}
 					}
-				} else {
-					String partialName = args[args.length - 1].toLowerCase();
-					for (EntityType entityType : EntityType.values()) {
-						if (entityType.isAlive() && entityType.name().toLowerCase().startsWith(partialName)) {
-							completions.add(entityType.name().toLowerCase());
-						}
+					completions.sort(null);
+				}
+			} else {
+				if (importing && args.length == 2 && "replace".startsWith(prefix)) {
+					completions.add("replace");
+				}
+				for (String key : StatueFilter.KEYS) {
+					if (key.startsWith(prefix)) {
+						completions.add(key);
 					}
 				}
 			}
-		} else if (command.getName().equalsIgnoreCase("msdel")) {
-			if (args.length == 0 || (args.length == 1 && args[0].isEmpty())) {
-				if (sender instanceof Player player) {
-					Object2ObjectOpenHashMap<String, Entity> playerStatues = getPlayerStatues(player.getUniqueId());
-					if (playerStatues != null) {
-						completions.addAll(playerStatues.keySet());
+		} else if (command.getName().equalsIgnoreCase("msgroup")) {
+			String prefix = args[args.length - 1].toLowerCase();
+			if (args.length == 1) {
+				for (String operation : new String[] { "create", "add", "remove", "move", "rotate", "pivot", "delete", "list" }) {
+					if (operation.startsWith(prefix)) {
+						completions.add(operation);
 					}
 				}
-			} else if (args.length == 1) {
-				String partialName = args[0].toLowerCase();
-				if (sender instanceof Player player) {
-					Object2ObjectOpenHashMap<String, Entity> playerStatues = getPlayerStatues(player.getUniqueId());
-					if (playerStatues != null) {
-						for (String statueName : playerStatues.keySet()) {
-							if (statueName.startsWith(partialName)) {
-								completions.add(statueName);
+			} else if (sender instanceof Player player) {
+				String operation = args[0].toLowerCase();
+				if (args.length == 2 && !operation.equals("create")) {
+					groups.collectNames(player.getUniqueId(), prefix, completions);
+					completions.sort(null);
+				} else if (args.length == 3 && (operation.equals("create") || operation.equals("add"))) {
+					registry.collectNames(player.getUniqueId(), prefix, completions);
+				} else if (args.length == 3 && operation.equals("remove")) {
+					StatueGroups.Group group = groups.get(player.getUniqueId(), args[1].toLowerCase());
+					if (group != null) {
+						for (String member : group.members()) {
+							if (member.startsWith(prefix)) {
+								completions.add(member);
 							}
 						}
 					}
 				}
 			}
-		} else if (command.getName().equalsIgnoreCase("msmove")) {
+		} else if (command.getName().equalsIgnoreCase("msadmin")) {
+			String prefix = args[args.length - 1].toLowerCase();
 			if (args.length == 1) {
-				String partialName = args[0].toLowerCase();
-				if (sender instanceof Player player) {
-					Object2ObjectOpenHashMap<String, Entity> playerStatues = getPlayerStatues(player.getUniqueId());
-					if (playerStatues != null) {
-						for (String statueName : playerStatues.keySet()) {
-							if (statueName.startsWith(partialName)) {
-								completions.add(statueName);
-							}
-						}
+				for (String operation : new String[] { "purge", "rotate", "translate", "cancel" }) {
+					if (operation.startsWith(prefix)) {
+						completions.add(operation);
 					}
 				}
-			}
-		} else if (command.getName().equalsIgnoreCase("msadjust")) {
-			if (args.length == 1) {
-				if (sender instanceof Player player) {
-					Object2ObjectOpenHashMap<String, Entity> playerStatues = getPlayerStatues(player.getUniqueId());
-					if (playerStatues != null) {
-						completions.addAll(playerStatues.keySet());
+			} else {
+				int arguments = adminArguments(args[0].toLowerCase());
+				if (arguments >= 0 && args.length > 1 + arguments) {
+					for (String key : StatueFilter.KEYS) {
+						if (key.startsWith(prefix)) {
+							completions.add(key);
+						}
 					}
 				}
 			}
 		}
 		return completions;
 	}
-
-	/**
-	 * A simple data class that stores the player's UUID and the statue name
-	 * for quick reverse lookups based on the statue ID.
-	 */
-	private static final class StatueInfo {
-		private final UUID playerId;
-		private final String statueName;
-
-		StatueInfo(UUID playerId, String statueName) {
-			this.playerId = playerId;
-			this.statueName = statueName;
-		}
-
-		public UUID playerId() {
-			return playerId;
-		}
-
-		public String statueName() {
-			return statueName;
-		}
-	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,167 @@
+package main;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Consumer;
+
+/**
+ * The scheduler for region-threaded servers (Folia). The plugin compiles against the
+ * Spigot API, so the region, entity, global and async schedulers are looked up
+ * reflectively once and called through method handles.
+ */
+final class RegionStatueScheduler implements StatueScheduler {
+	private static final String REGIONIZED_SERVER = "io.papermc.paper.threadedregions.RegionizedServer";
+
+	private final Plugin plugin;
+	private final Object globalScheduler;
+	private final Object regionScheduler;
+	private final Object asyncScheduler;
+	private final MethodHandle ownsChunk;
+	private final MethodHandle ownsEntity;
+	private final MethodHandle isGlobalThread;
+	private final MethodHandle regionExecute;
+	private final MethodHandle entityScheduler;
+	private final MethodHandle entityExecute;
+	private final MethodHandle globalExecute;
+	private final MethodHandle globalRunAtFixedRate;
+	private final MethodHandle asyncRunNow;
+	private final MethodHandle cancel;
+
+	/**
+	 * @return True if the server is region-threaded.
+	 */
+	static boolean isSupported() {
+		try {
+			Class.forName(REGIONIZED_SERVER);
+			return true;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	RegionStatueScheduler(Plugin plugin) throws ReflectiveOperationException {
+		this.plugin = plugin;
+		MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+		globalScheduler = Bukkit.class.getMethod("getGlobalRegionScheduler").invoke(null);
+		regionScheduler = Bukkit.class.getMethod("getRegionScheduler").invoke(null);
+		asyncScheduler = Bukkit.class.getMethod("getAsyncScheduler").invoke(null);
+		ownsChunk = lookup.unreflect(Bukkit.class.getMethod("isOwnedByCurrentRegion", World.class, int.class, int.class));
+		ownsEntity = lookup.unreflect(Bukkit.class.getMethod("isOwnedByCurrentRegion", Entity.class));
+		isGlobalThread = lookup.unreflect(Bukkit.class.getMethod("isGlobalTickThread"));
+		regionExecute = lookup.unreflect(publicMethod(regionScheduler, "execute", Plugin.class, World.class, int.class, int.class, Runnable.class))
+				.bindTo(regionScheduler);
+		Class<?> entitySchedulerType = Class.forName("io.papermc.paper.threadedregions.scheduler.EntityScheduler");
+		entityScheduler = lookup.findVirtual(Entity.class, "getScheduler", MethodType.methodType(entitySchedulerType));
+		entityExecute = lookup.findVirtual(entitySchedulerType, "execute",
+				MethodType.methodType(boolean.class, Plugin.class, Runnable.class, Runnable.class, long.class));
+		globalExecute = lookup.unreflect(publicMethod(globalScheduler, "execute", Plugin.class, Runnable.class)).bindTo(globalScheduler);
+		globalRunAtFixedRate = lookup.unreflect(publicMethod(globalScheduler, "runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class))
+				.bindTo(globalScheduler);
+		asyncRunNow = lookup.unreflect(publicMethod(asyncScheduler, "runNow", Plugin.class, Consumer.class)).bindTo(asyncScheduler);
+		Class<?> scheduledTask = Class.forName("io.papermc.paper.threadedregions.scheduler.ScheduledTask");
+		cancel = lookup.findVirtual(scheduledTask, "cancel", MethodType.methodType(scheduledTask.getMethod("cancel").getReturnType()));
+	}
+
+	/**
+	 * Finds a method through the public interface that declares it, since the scheduler
+	 * implementations themselves are not public.
+	 */
+	private static java.lang.reflect.Method publicMethod(Object target, String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+		for (Class<?> type : target.getClass().getInterfaces()) {
+			try {
+				return type.getMethod(name, parameterTypes);
+			} catch (NoSuchMethodException e) {
+				// Try the next interface.
+			}
+		}
+		return target.getClass().getMethod(name, parameterTypes);
+	}
+
+	@Override
+	public boolean regionThreaded() {
+		return true;
+	}
+
+	@Override
+	public void runAt(World world, int chunkX, int chunkZ, Runnable task) {
+		if (!plugin.isEnabled()) return;
+		try {
+			if ((boolean) ownsChunk.invokeExact(world, chunkX, chunkZ)) {
+				task.run();
+			} else {
+				regionExecute.invoke(plugin, world, chunkX, chunkZ, task);
+			}
+		} catch (Throwable t) {
+			rethrow(t);
+		}
+	}
+
+	@Override
+	public void runFor(Entity entity, Runnable task) {
+		if (!plugin.isEnabled()) return;
+		try {
+			if ((boolean) ownsEntity.invokeExact(entity)) {
+				task.run();
+			} else {
+				Object scheduler = entityScheduler.invoke(entity);
+				entityExecute.invoke(scheduler, plugin, task, (Runnable) null, 1L);
+			}
+		} catch (Throwable t) {
+			rethrow(t);
+		}
+	}
+
+	@Override
+	public void runGlobal(Runnable task) {
+		if (!plugin.isEnabled()) return;
+		try {
+			if ((boolean) isGlobalThread.invokeExact()) {
+				task.run();
+			} else {
+				globalExecute.invoke(plugin, task);
+			}
+		} catch (Throwable t) {
+			rethrow(t);
+		}
+	}
+
+	@Override
+	public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+		Consumer<Object> consumer = scheduled -> task.run();
+		try {
+			Object scheduled = globalRunAtFixedRate.invoke(plugin, consumer, Math.max(1L, delayTicks), Math.max(1L, periodTicks));
+			return () -> {
+				try {
+					cancel.invoke(scheduled);
+				} catch (Throwable t) {
+					rethrow(t);
+				}
+			};
+		} catch (Throwable t) {
+			rethrow(t);
+			return null;
+		}
+	}
+
+	@Override
+	public void runAsync(Runnable task) {
+		Consumer<Object> consumer = scheduled -> task.run();
+		try {
+			asyncRunNow.invoke(plugin, consumer);
+		} catch (Throwable t) {
+			rethrow(t);
+		}
+	}
+
+	private static void rethrow(Throwable t) {
+		if (t instanceof RuntimeException runtimeException) throw runtimeException;
+		if (t instanceof Error error) throw error;
+		throw new IllegalStateException(t);
+	}
+}
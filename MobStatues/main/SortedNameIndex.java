@@ -0,0 +1,60 @@
+package main;
+
+import it.unimi.dsi.fastutil.objects.ObjectList;
+
+import java.util.Arrays;
+
+/**
+ * A sorted array of distinct names that answers prefix queries with a binary search.
+ * Used for tab completion, where the matching names are a contiguous run of the array.
+ */
+final class SortedNameIndex {
+	private String[] names = new String[8];
+	private int size;
+
+	/**
+	 * Inserts a name, keeping the array sorted. Inserting a name twice has no effect.
+	 * @param name The name to insert.
+	 */
+	void add(String name) {
+		int pos = Arrays.binarySearch(names, 0, size, name);
+		if (pos >= 0) return;
+		pos = -pos - 1;
+		if (size == names.length) {
+			names = Arrays.copyOf(names, size * 2);
+		}
+		System.arraycopy(names, pos, names, pos + 1, size - pos);
+		names[pos] = name;
+		size++;
+	}
+
+	/**
+	 * Removes a name if present.
+	 * @param name The name to remove.
+	 */
+	void remove(String name) {
+		int pos = Arrays.binarySearch(names, 0, size, name);
+		if (pos < 0) return;
+		System.arraycopy(names, pos + 1, names, pos, size - pos - 1);
+		names[--size] = null;
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Adds every name starting with a prefix to a list, in sorted order.
+	 * @param prefix The prefix; an empty prefix matches every name.
+	 * @param out The list to add the matching names to.
+	 */
+	void collect(String prefix, ObjectList<String> out) {
+		int pos = Arrays.binarySearch(names, 0, size, prefix);
+		if (pos < 0) {
+			pos = -pos - 1;
+		}
+		while (pos < size && names[pos].startsWith(prefix)) {
+			out.add(names[pos++]);
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package main;
+
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+
+import java.util.UUID;
+
+/**
+ * A handle to a statue stored in the {@link StatueRegistry}. The handle exists for as
+ * long as the statue does and carries the statue's entity, which is only present while
+ * the statue's chunk is loaded. Once the statue is removed the handle is detached and
+ * only its entity may still be used.
+ *
+ * <p>The registry record is the statue's only source of truth. The entity is a view
+ * spawned from it and is never read back: edits change the record first and then move
+ * the entity, and saves work from {@link StatueData} snapshots of the record, so they
+ * run on any thread and do not depend on the entity existing.
+ *
+ * <p>Handles are shared between region threads. The entity field is only swapped
+ * through {@link #setEntity(LivingEntity)} and {@link #takeEntity()}, so exactly one
+ * thread gets to remove a given entity.
+ */
+final class Statue {
+	private final StatueRegistry registry;
+	private volatile int slot;
+	private volatile LivingEntity entity;
+
+	Statue(StatueRegistry registry, int slot) {
+		this.registry = registry;
+		this.slot = slot;
+	}
+
+	/**
+	 * The accessors below read one field each. Once the statue has been removed, which
+	 * on region-threaded servers can happen at any moment on another thread, they return
+	 * null, NaN, {@link StatueData#NO_ID} or {@link StatueChunkIndex#NO_CHUNK} instead.
+	 * Use {@link #data()} or {@link StatueRegistry#describe(Statue)} for consistent state.
+	 */
+	public UUID ownerId() {
+		return registry.ownerId(this);
+	}
+
+	public String name() {
+		return registry.name(this);
+	}
+
+	public EntityType entityType() {
+		return registry.entityType(this);
+	}
+
+	/**
+	 * @return A snapshot of the statue's current state, or null once it has been removed.
+	 */
+	public StatueData data() {
+		return registry.data(this);
+	}
+
+	public String worldName() {
+		return registry.worldName(this);
+	}
+
+	public double x() {
+		return registry.coordinate(this, 0);
+	}
+
+	public double y() {
+		return registry.coordinate(this, 1);
+	}
+
+	public double z() {
+		return registry.coordinate(this, 2);
+	}
+
+	public long statueId() {
+		return registry.statueId(this);
+	}
+
+	public LivingEntity entity() {
+		return entity;
+	}
+
+	/**
+	 * Replaces the stored state. Callers that index statues by position must remove
+	 * the statue from those indexes before changing its data.
+	 * @param data The new state of the statue.
+	 * @return False if the statue has been removed, in which case nothing changed.
+	 */
+	boolean setData(StatueData data) {
+		return registry.update(this, data);
+	}
+
+	synchronized void setEntity(LivingEntity entity) {
+		this.entity = entity;
+	}
+
+	/**
+	 * Clears the statue's entity and hands it to the caller.
+	 * @return The entity, or null if the statue had none.
+	 */
+	synchronized LivingEntity takeEntity() {
+		LivingEntity taken = entity;
+		entity = null;
+		return taken;
+	}
+
+	/**
+	 * Clears the statue's entity if it is the given one, leaving the entity in the world.
+	 * @param expected The entity being unloaded.
+	 * @return True if it was the statue's entity.
+	 */
+	synchronized boolean detachEntity(LivingEntity expected) {
+		if (entity != expected) return false;
+		entity = null;
+		return true;
+	}
+
+	/**
+	 * @return True once the statue has been deleted; queued spawns for it are skipped.
+	 */
+	boolean isRemoved() {
+		return slot < 0;
+	}
+
+	int slot() {
+		return slot;
+	}
+
+	void detach() {
+		slot = -1;
+	}
+
+	/**
+	 * @return The packed key of the chunk this statue stands in, or {@link StatueChunkIndex#NO_CHUNK} once it has been removed.
+	 */
+	long chunkKey() {
+		return registry.chunkKey(this);
+	}
+}
@@ -0,0 +1,254 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A portable statue archive for moving statues between servers: a UTF-8 text file
+ * with a header line and one statue per line, so it can be written and read one
+ * statue at a time, inspected by hand, and concatenated or split with ordinary tools.
+ * Archives whose name ends in ".gz" are gzip-compressed.
+ *
+ * <pre>
+ * # MobStatues statue archive 1
+ * owner UUID, name, world, entity type, x, y, z, yaw, pitch, statue ID   (tab-separated)
+ * </pre>
+ * Tabs, line breaks and backslashes in names are escaped with a backslash.
+ */
+final class StatueArchive {
+	static final String HEADER = "# MobStatues statue archive 1";
+	private static final int FIELDS = 10;
+
+	private StatueArchive() {
+	}
+
+	private static boolean compressed(File file) {
+		return file.getName().endsWith(".gz");
+	}
+
+	/**
+	 * Writes an archive to a temporary file next to the target, which replaces the
+	 * target only when {@link #commit()} is called, so a failed export never leaves a
+	 * truncated archive behind.
+	 */
+	static final class Writer implements Closeable {
+		private final Path target;
+		private final Path temporary;
+		private final BufferedWriter out;
+		private final StringBuilder line = new StringBuilder(128);
+		private int written;
+		private boolean committed;
+
+		Writer(File file) throws IOException {
+			target = file.toPath();
+			temporary = target.resolveSibling(file.getName() + ".tmp");
+			OutputStream stream = Files.newOutputStream(temporary);
+			if (compressed(file)) {
+				stream = new GZIPOutputStream(stream, 1 << 16);
+			}
+			out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16);
+			out.write(HEADER);
+			out.newLine();
+		}
+
+		/**
+		 * Appends one statue.
+		 * @param ownerId The UUID of the player who owns the statue.
+		 * @param name The statue name.
+		 * @param data The statue's state.
+		 * @throws IOException If the archive cannot be written.
+		 */
+		void write(UUID ownerId, String name, StatueData data) throws IOException {
+			line.setLength(0);
+			line.append(ownerId).append('\t');
+			escape(name, line);
+			line.append('\t');
+			escape(data.worldName(), line);
+			line.append('\t').append(data.entityType())
+					.append('\t').append(data.x()).append('\t').append(data.y()).append('\t').append(data.z())
+					.append('\t').append(data.yaw()).append('\t').append(data.pitch())
+					.append('\t').append(data.statueId());
+			out.append(line);
+			out.newLine();
+			written++;
+		}
+
+		/**
+		 * @return The number of statues written.
+		 */
+		int written() {
+			return written;
+		}
+
+		/**
+		 * Finishes the archive and moves it over the target.
+		 * @return The archive size in bytes.
+		 * @throws IOException If the archive cannot be finished.
+		 */
+		long commit() throws IOException {
+			out.close();
+			try {
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			committed = true;
+			return Files.size(target);
+		}
+
+		/**
+		 * Discards the archive unless it was committed.
+		 */
+		@Override
+		public void close() throws IOException {
+			if (committed) return;
+			try {
+				out.close();
+			} finally {
+				Files.deleteIfExists(temporary);
+			}
+		}
+	}
+
+	/**
+	 * Reads an archive one statue at a time. Lines that cannot be parsed are skipped
+	 * and counted.
+	 */
+	static final class Reader implements Closeable {
+		private final BufferedReader in;
+		private final String[] fields = new String[FIELDS];
+		private UUID ownerId;
+		private String name;
+		private StatueData data;
+		private int malformed;
+
+		/**
+		 * @param file The archive.
+		 * @throws IOException If the file cannot be opened or is not a statue archive.
+		 */
+		Reader(File file) throws IOException {
+			InputStream stream = Files.newInputStream(file.toPath());
+			try {
+				if (compressed(file)) {
+					stream = new GZIPInputStream(stream, 1 << 16);
+				}
+				in = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8), 1 << 16);
+				if (!HEADER.equals(in.readLine())) {
+					throw new IOException("Not a statue archive: " + file.getName());
+				}
+			} catch (IOException e) {
+				stream.close();
+				throw e;
+			}
+		}
+
+		/**
+		 * Moves to the next statue.
+		 * @return False at the end of the archive.
+		 * @throws IOException If the archive cannot be read.
+		 */
+		boolean next() throws IOException {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.isEmpty() || line.charAt(0) == '#') continue;
+				if (parse(line)) return true;
+				malformed++;
+			}
+			return false;
+		}
+
+		UUID ownerId() {
+			return ownerId;
+		}
+
+		String name() {
+			return name;
+		}
+
+		StatueData data() {
+			return data;
+		}
+
+		/**
+		 * @return The number of lines skipped because they could not be parsed.
+		 */
+		int malformed() {
+			return malformed;
+		}
+
+		private boolean parse(String line) {
+			int count = 0;
+			int start = 0;
+			for (int i = 0; i <= line.length() && count < FIELDS; i++) {
+				if (i == line.length() || line.charAt(i) == '\t') {
+					fields[count++] = line.substring(start, i);
+					start = i + 1;
+				}
+			}
+			if (count != FIELDS || start <= line.length()) return false;
+			try {
+				ownerId = UUID.fromString(fields[0]);
+				name = unescape(fields[1]);
+				data = new StatueData(unescape(fields[2]), Double.parseDouble(fields[4]), Double.parseDouble(fields[5]),
+						Double.parseDouble(fields[6]), Float.parseFloat(fields[7]), Float.parseFloat(fields[8]), fields[3],
+						Long.parseLong(fields[9]));
+				return !name.isEmpty();
+			} catch (IllegalArgumentException e) {
+				return false;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+
+	private static void escape(String value, StringBuilder out) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '\t' -> out.append("\\t");
+				case '\n' -> out.append("\\n");
+				case '\r' -> out.append("\\r");
+				case '\\' -> out.append("\\\\");
+				default -> out.append(c);
+			}
+		}
+	}
+
+	private static String unescape(String value) {
+		if (value.indexOf('\\') < 0) return value;
+		StringBuilder out = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c != '\\' || i + 1 == value.length()) {
+				out.append(c);
+				continue;
+			}
+			char escaped = value.charAt(++i);
+			out.append(switch (escaped) {
+				case 't' -> '\t';
+				case 'n' -> '\n';
+				case 'r' -> '\r';
+				default -> escaped;
+			});
+		}
+		return out.toString();
+	}
+}
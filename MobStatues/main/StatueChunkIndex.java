@@ -0,0 +1,336 @@
+package main;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Indexes statues by world name and packed chunk coordinates, so chunk load and
+ * unload events can find the statues they affect without scanning every statue.
+ * The same grid answers radius queries around a position, and the chunk lists and
+ * a per-world counter give statue densities without recounting.
+ *
+ * <p>Chunk events and commands reach the index from every region thread on
+ * region-threaded servers, so changes take the write lock and queries the read lock,
+ * and queries return copies rather than the index's own lists.
+ */
+final class StatueChunkIndex {
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Object2ObjectOpenHashMap<String, Long2ObjectOpenHashMap<ObjectArrayList<Statue>>> worlds = new Object2ObjectOpenHashMap<>();
+	private final Object2IntOpenHashMap<String> worldCounts = new Object2IntOpenHashMap<>();
+
+	/**
+	 * Returned instead of a chunk key for a statue that has been removed. No chunk of a
+	 * world within the world border has this key.
+	 */
+	static final long NO_CHUNK = Long.MIN_VALUE;
+
+	/**
+	 * Packs chunk coordinates into a single long, X in the high half and Z in the low half.
+	 * @param chunkX The chunk X coordinate.
+	 * @param chunkZ The chunk Z coordinate.
+	 * @return The packed chunk key.
+	 */
+	static long chunkKey(int chunkX, int chunkZ) {
+		return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Packs the chunk containing a block position.
+	 * @param x The X coordinate.
+	 * @param z The Z coordinate.
+	 * @return The packed chunk key.
+	 */
+	static long chunkKey(double x, double z) {
+		return chunkKey((int) Math.floor(x) >> 4, (int) Math.floor(z) >> 4);
+	}
+
+	static int chunkX(long chunkKey) {
+		return (int) (chunkKey >> 32);
+	}
+
+	static int chunkZ(long chunkKey) {
+		return (int) chunkKey;
+	}
+
+	/**
+	 * Adds a statue under its current world and chunk. Removed statues are ignored.
+	 * @param statue The statue to index.
+	 */
+	void add(Statue statue) {
+		StatueData data = statue.data();
+		if (data == null) return;
+		String worldName = data.worldName();
+		long key = chunkKey(data.x(), data.z());
+		lock.writeLock().lock();
+		try {
+			worlds.computeIfAbsent(worldName, k -> new Long2ObjectOpenHashMap<>())
+					.computeIfAbsent(key, k -> new ObjectArrayList<>()).add(statue);
+			worldCounts.addTo(worldName, 1);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes a statue from the chunk matching its current data. Must be called before
+	 * the statue's position is changed.
+	 * @param statue The statue to remove.
+	 */
+	void remove(Statue statue) {
+		StatueData data = statue.data();
+		if (data == null) return;
+		String worldName = data.worldName();
+		long key = chunkKey(data.x(), data.z());
+		lock.writeLock().lock();
+		try {
+			Long2ObjectOpenHashMap<ObjectArrayList<Statue>> chunks = worlds.get(worldName);
+			if (chunks == null) return;
+			ObjectArrayList<Statue> statues = chunks.get(key);
+			if (statues == null || !statues.remove(statue)) return;
+			if (worldCounts.addTo(worldName, -1) <= 1) {
+				worldCounts.removeInt(worldName);
+			}
+			if (statues.isEmpty()) {
+				chunks.remove(key);
+				if (chunks.isEmpty()) {
+					worlds.remove(worldName);
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the statues standing in a chunk.
+	 * @param worldName The world name.
+	 * @param chunkKey The packed chunk key.
+	 * @return A copy of the statues in the chunk, or null if there are none.
+	 */
+	ObjectArrayList<Statue> get(String worldName, long chunkKey) {
+		lock.readLock().lock();
+		try {
+			ObjectArrayList<Statue> statues = chunk(worldName, chunkKey);
+			return statues == null ? null : new ObjectArrayList<>(statues);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private ObjectArrayList<Statue> chunk(String worldName, long chunkKey) {
+		Long2ObjectOpenHashMap<ObjectArrayList<Statue>> chunks = worlds.get(worldName);
+		return chunks == null ? null : chunks.get(chunkKey);
+	}
+
+	/**
+	 * @param worldName The world name.
+	 * @param chunkKey The packed chunk key.
+	 * @return The number of statues standing in the chunk.
+	 */
+	int count(String worldName, long chunkKey) {
+		lock.readLock().lock();
+		try {
+			ObjectArrayList<Statue> statues = chunk(worldName, chunkKey);
+			return statues == null ? 0 : statues.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @param worldName The world name.
+	 * @return The number of statues standing in the world.
+	 */
+	int count(String worldName) {
+		lock.readLock().lock();
+		try {
+			return worldCounts.getInt(worldName);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return A copy of the number of statues in each world that has any.
+	 */
+	Object2IntOpenHashMap<String> worldCounts() {
+		lock.readLock().lock();
+		try {
+			return new Object2IntOpenHashMap<>(worldCounts);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the chunks holding the most statues across all worlds.
+	 * @param limit The most chunks to return.
+	 * @return The densest chunks, densest first.
+	 */
+	ObjectArrayList<ChunkDensity> densest(int limit) {
+		ObjectArrayList<ChunkDensity> chunks = new ObjectArrayList<>();
+		lock.readLock().lock();
+		try {
+			for (Map.Entry<String, Long2ObjectOpenHashMap<ObjectArrayList<Statue>>> world : worlds.entrySet()) {
+				for (Long2ObjectOpenHashMap.Entry<ObjectArrayList<Statue>> chunk : world.getValue().long2ObjectEntrySet()) {
+					chunks.add(new ChunkDensity(world.getKey(), chunk.getLongKey(), chunk.getValue().size()));
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		chunks.sort(Comparator.comparingInt(ChunkDensity::count).reversed());
+		if (chunks.size() > limit) {
+			chunks.size(limit);
+		}
+		return chunks;
+	}
+
+	/**
+	 * Returns every indexed chunk of a world. The map is the index's own and is only
+	 * safe to read on the thread that changes the index, so this is for single-threaded
+	 * servers only.
+	 * @param worldName The world name.
+	 * @return Chunk key to statues, or null if the world has no statues.
+	 */
+	Long2ObjectOpenHashMap<ObjectArrayList<Statue>> chunks(String worldName) {
+		return worlds.get(worldName);
+	}
+
+	/**
+	 * Finds the statues within a radius of a position, nearest first. Only the chunks
+	 * overlapping the radius are visited, or only the indexed chunks of the world when
+	 * there are fewer of those. Distances are taken while the index is locked, so a
+	 * statue removed by another region thread before the sort is still ordered by where
+	 * it stood; callers must expect some returned statues to have been removed since.
+	 * @param worldName The world name.
+	 * @param x The X coordinate of the center.
+	 * @param y The Y coordinate of the center.
+	 * @param z The Z coordinate of the center.
+	 * @param radius The radius in blocks.
+	 * @return The statues within the radius, nearest first, possibly empty.
+	 */
+	ObjectArrayList<Statue> near(String worldName, double x, double y, double z, double radius) {
+		ObjectArrayList<Candidate> candidates = new ObjectArrayList<>();
+		lock.readLock().lock();
+		try {
+			collectNear(worldName, x, y, z, radius, candidates);
+		} finally {
+			lock.readLock().unlock();
+		}
+		candidates.sort(Comparator.comparingDouble(candidate -> candidate.distanceSquared));
+		ObjectArrayList<Statue> result = new ObjectArrayList<>(candidates.size());
+		for (Candidate candidate : candidates) {
+			result.add(candidate.statue);
+		}
+		return result;
+	}
+
+	/**
+	 * A statue found by a radius query and its squared distance at the time.
+	 */
+	private static final class Candidate {
+		private final Statue statue;
+		private final double distanceSquared;
+
+		Candidate(Statue statue, double distanceSquared) {
+			this.statue = statue;
+			this.distanceSquared = distanceSquared;
+		}
+	}
+
+	private void collectNear(String worldName, double x, double y, double z, double radius, ObjectArrayList<Candidate> result) {
+		Long2ObjectOpenHashMap<ObjectArrayList<Statue>> chunks = worlds.get(worldName);
+		if (chunks == null) return;
+		double radiusSquared = radius * radius;
+		int minX = (int) Math.floor(x - radius) >> 4;
+		int maxX = (int) Math.floor(x + radius) >> 4;
+		int minZ = (int) Math.floor(z - radius) >> 4;
+		int maxZ = (int) Math.floor(z + radius) >> 4;
+		if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) <= chunks.size()) {
+			for (int chunkX = minX; chunkX <= maxX; chunkX++) {
+				for (int chunkZ = minZ; chunkZ <= maxZ; chunkZ++) {
+					ObjectArrayList<Statue> statues = chunks.get(chunkKey(chunkX, chunkZ));
+					if (statues != null) {
+						collect(statues, x, y, z, radiusSquared, result);
+					}
+				}
+			}
+		} else {
+			for (Long2ObjectOpenHashMap.Entry<ObjectArrayList<Statue>> chunk : chunks.long2ObjectEntrySet()) {
+				int chunkX = chunkX(chunk.getLongKey());
+				int chunkZ = chunkZ(chunk.getLongKey());
+				if (chunkX >= minX && chunkX <= maxX && chunkZ >= minZ && chunkZ <= maxZ) {
+					collect(chunk.getValue(), x, y, z, radiusSquared, result);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the squared distance between a statue and a position.
+	 * @param statue The statue.
+	 * @param x The X coordinate.
+	 * @param y The Y coordinate.
+	 * @param z The Z coordinate.
+	 * @return The squared distance in blocks.
+	 */
+	static double distanceSquared(Statue statue, double x, double y, double z) {
+		double dx = statue.x() - x;
+		double dy = statue.y() - y;
+		double dz = statue.z() - z;
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	private static void collect(ObjectArrayList<Statue> statues, double x, double y, double z, double radiusSquared, ObjectArrayList<Candidate> result) {
+		for (Statue statue : statues) {
+			double distanceSquared = distanceSquared(statue, x, y, z);
+			if (distanceSquared <= radiusSquared) {
+				result.add(new Candidate(statue, distanceSquared));
+			}
+		}
+	}
+
+	void clear() {
+		lock.writeLock().lock();
+		try {
+			worlds.clear();
+			worldCounts.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * The number of statues in one chunk.
+	 */
+	static final class ChunkDensity {
+		private final String worldName;
+		private final long chunkKey;
+		private final int count;
+
+		ChunkDensity(String worldName, long chunkKey, int count) {
+			this.worldName = worldName;
+			this.chunkKey = chunkKey;
+			this.count = count;
+		}
+
+		public String worldName() {
+			return worldName;
+		}
+
+		public long chunkKey() {
+			return chunkKey;
+		}
+
+		public int count() {
+			return count;
+		}
+	}
+}
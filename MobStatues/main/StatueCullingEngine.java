@@ -0,0 +1,235 @@
+package main;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Limits which statues each player can see. Statue entities are spawned hidden from
+ * everyone, and each player is shown only the closest statues within a radius, up to
+ * a maximum count. A player's visible set is recomputed only after they cross a chunk
+ * boundary, teleport, change world or join, and those recomputations are batched into
+ * a periodic task instead of running inside the movement events. Player visibility
+ * is per server rather than per region, so the engine is only used on single-threaded
+ * servers.
+ */
+final class StatueCullingEngine implements Listener {
+
+	/**
+	 * What one player currently sees.
+	 */
+	private static final class PlayerView {
+		/**
+		 * The statues shown to the player, with the entity that was shown. A statue that
+		 * has been re-spawned since has a different entity and must be shown again.
+		 */
+		private Object2ObjectOpenHashMap<Statue, LivingEntity> shown = new Object2ObjectOpenHashMap<>();
+		private boolean dirty = true;
+	}
+
+	private final Plugin plugin;
+	private final StatueChunkIndex chunkIndex;
+	private final double radiusSquared;
+	private final int scanChunks;
+	private final int maxVisible;
+	private final Object2ObjectOpenHashMap<UUID, PlayerView> views = new Object2ObjectOpenHashMap<>();
+	private final ObjectArrayList<Statue> candidates = new ObjectArrayList<>();
+	private BukkitTask task;
+
+	StatueCullingEngine(Plugin plugin, StatueChunkIndex chunkIndex, double radius, int maxVisible) {
+		this.plugin = plugin;
+		this.chunkIndex = chunkIndex;
+		this.radiusSquared = radius * radius;
+		this.scanChunks = (int) Math.ceil(radius / 16.0);
+		this.maxVisible = maxVisible > 0 ? maxVisible : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Registers the movement listeners and starts the periodic update task.
+	 * @param intervalTicks How often dirty players are recomputed.
+	 */
+	void start(long intervalTicks) {
+		plugin.getServer().getPluginManager().registerEvents(this, plugin);
+		for (Player player : Bukkit.getOnlinePlayers()) {
+			views.put(player.getUniqueId(), new PlayerView());
+		}
+		task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::updateDirtyPlayers, intervalTicks, Math.max(1L, intervalTicks));
+	}
+
+	void stop() {
+		if (task != null) {
+			task.cancel();
+			task = null;
+		}
+		views.clear();
+	}
+
+	/**
+	 * Hides a freshly spawned statue entity from everyone and marks the players close
+	 * enough to see it for recomputation.
+	 * @param statue The statue whose entity was just spawned.
+	 */
+	void statueSpawned(Statue statue) {
+		LivingEntity entity = statue.entity();
+		if (entity == null) return;
+		entity.setVisibleByDefault(false);
+		for (Entity passenger : entity.getPassengers()) {
+			passenger.setVisibleByDefault(false);
+		}
+		statueMoved(statue);
+	}
+
+	/**
+	 * Marks the players close enough to see a statue for recomputation, after its
+	 * entity was spawned or teleported.
+	 * @param statue The statue that appeared or moved.
+	 */
+	void statueMoved(Statue statue) {
+		LivingEntity entity = statue.entity();
+		if (entity == null) return;
+		long chunkKey = statue.chunkKey();
+		int chunkX = StatueChunkIndex.chunkX(chunkKey);
+		int chunkZ = StatueChunkIndex.chunkZ(chunkKey);
+		for (Player player : entity.getWorld().getPlayers()) {
+			Location location = player.getLocation();
+			if (Math.abs((location.getBlockX() >> 4) - chunkX) <= scanChunks && Math.abs((location.getBlockZ() >> 4) - chunkZ) <= scanChunks) {
+				markDirty(player);
+			}
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onPlayerMove(PlayerMoveEvent event) {
+		Location from = event.getFrom();
+		Location to = event.getTo();
+		if (to == null) return;
+		if ((from.getBlockX() >> 4) != (to.getBlockX() >> 4) || (from.getBlockZ() >> 4) != (to.getBlockZ() >> 4)) {
+			markDirty(event.getPlayer());
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onPlayerTeleport(PlayerTeleportEvent event) {
+		markDirty(event.getPlayer());
+	}
+
+	@EventHandler
+	public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+		markDirty(event.getPlayer());
+	}
+
+	@EventHandler
+	public void onPlayerJoin(PlayerJoinEvent event) {
+		views.put(event.getPlayer().getUniqueId(), new PlayerView());
+	}
+
+	@EventHandler
+	public void onPlayerQuit(PlayerQuitEvent event) {
+		views.remove(event.getPlayer().getUniqueId());
+	}
+
+	private void markDirty(Player player) {
+		PlayerView view = views.get(player.getUniqueId());
+		if (view != null) {
+			view.dirty = true;
+		}
+	}
+
+	private void updateDirtyPlayers() {
+		for (Map.Entry<UUID, PlayerView> entry : views.entrySet()) {
+			PlayerView view = entry.getValue();
+			if (!view.dirty) continue;
+			Player player = Bukkit.getPlayer(entry.getKey());
+			if (player != null) {
+				view.dirty = false;
+				update(player, view);
+			}
+		}
+	}
+
+	/**
+	 * Recomputes the statues a player sees: the closest statues with a live entity
+	 * within the radius, up to the maximum count. Newly selected statues are shown and
+	 * statues that dropped out of the set are hidden again.
+	 * @param player The player to update.
+	 * @param view The player's current view.
+	 */
+	private void update(Player player, PlayerView view) {
+		Location location = player.getLocation();
+		double x = location.getX();
+		double y = location.getY();
+		double z = location.getZ();
+		candidates.clear();
+		Long2ObjectOpenHashMap<ObjectArrayList<Statue>> chunks = chunkIndex.chunks(location.getWorld().getName());
+		if (chunks != null) {
+			int centerX = location.getBlockX() >> 4;
+			int centerZ = location.getBlockZ() >> 4;
+			for (int dx = -scanChunks; dx <= scanChunks; dx++) {
+				for (int dz = -scanChunks; dz <= scanChunks; dz++) {
+					ObjectArrayList<Statue> statues = chunks.get(StatueChunkIndex.chunkKey(centerX + dx, centerZ + dz));
+					if (statues == null) continue;
+					for (Statue statue : statues) {
+						if (statue.entity() != null && StatueChunkIndex.distanceSquared(statue, x, y, z) <= radiusSquared) {
+							candidates.add(statue);
+						}
+					}
+				}
+			}
+		}
+		if (candidates.size() > maxVisible) {
+			candidates.sort(Comparator.comparingDouble(statue -> StatueChunkIndex.distanceSquared(statue, x, y, z)));
+			candidates.size(maxVisible);
+		}
+
+		Object2ObjectOpenHashMap<Statue, LivingEntity> shown = new Object2ObjectOpenHashMap<>(candidates.size());
+		for (Statue statue : candidates) {
+			LivingEntity entity = statue.entity();
+			LivingEntity previous = view.shown.remove(statue);
+			if (previous != entity) {
+				setShown(player, previous, false);
+				setShown(player, entity, true);
+			}
+			shown.put(statue, entity);
+		}
+		for (LivingEntity stale : view.shown.values()) {
+			setShown(player, stale, false);
+		}
+		view.shown = shown;
+	}
+
+	private void setShown(Player player, LivingEntity entity, boolean visible) {
+		if (entity == null || !entity.isValid()) return;
+		if (visible) {
+			player.showEntity(plugin, entity);
+		} else {
+			player.hideEntity(plugin, entity);
+		}
+		for (Entity passenger : entity.getPassengers()) {
+			if (visible) {
+				player.showEntity(plugin, passenger);
+			} else {
+				player.hideEntity(plugin, passenger);
+			}
+		}
+	}
+}
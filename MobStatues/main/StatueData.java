@@ -0,0 +1,150 @@
+package main;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * An immutable snapshot of a single statue's persisted state. Snapshots are taken
+ * on the server thread and handed to the background writer, so they must never
+ * reference live entities or worlds.
+ */
+final class StatueData {
+	/**
+	 * The statue ID of a statue that has not been assigned one yet.
+	 */
+	static final long NO_ID = 0L;
+
+	private final String worldName;
+	private final double x;
+	private final double y;
+	private final double z;
+	private final float yaw;
+	private final float pitch;
+	private final String entityType;
+	private final long statueId;
+
+	StatueData(String worldName, double x, double y, double z, float yaw, float pitch, String entityType, long statueId) {
+		this.worldName = worldName;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.yaw = yaw;
+		this.pitch = pitch;
+		this.entityType = entityType;
+		this.statueId = statueId;
+	}
+
+	public String worldName() {
+		return worldName;
+	}
+
+	public double x() {
+		return x;
+	}
+
+	public double y() {
+		return y;
+	}
+
+	public double z() {
+		return z;
+	}
+
+	public float yaw() {
+		return yaw;
+	}
+
+	public float pitch() {
+		return pitch;
+	}
+
+	public String entityType() {
+		return entityType;
+	}
+
+	/**
+	 * @return The statue's unique ID, or {@link #NO_ID} if none has been assigned yet.
+	 */
+	public long statueId() {
+		return statueId;
+	}
+
+	/**
+	 * Reads a snapshot from a statue's configuration section. Missing numeric values
+	 * default to zero. A missing "entityName", or one still holding an old random
+	 * string ID, yields {@link #NO_ID} so that a numeric ID is assigned on load.
+	 * @param statueSection The configuration section to read from.
+	 * @return The snapshot described by the section.
+	 */
+	static StatueData readFrom(ConfigurationSection statueSection) {
+		long statueId = NO_ID;
+		Object storedId = statueSection.get("entityName");
+		if (storedId instanceof Number number) {
+			statueId = number.longValue();
+		} else if (storedId instanceof String string) {
+			try {
+				statueId = Long.parseLong(string);
+			} catch (NumberFormatException ignored) {
+			}
+		}
+		return new StatueData(statueSection.getString("world"), statueSection.getDouble("x"), statueSection.getDouble("y"),
+				statueSection.getDouble("z"), (float) statueSection.getDouble("yaw"), (float) statueSection.getDouble("pitch"),
+				statueSection.getString("entityType"), statueId);
+	}
+
+	/**
+	 * Returns a copy of this snapshot with a different statue ID.
+	 * @param newStatueId The statue ID to use.
+	 * @return The new snapshot.
+	 */
+	StatueData withStatueId(long newStatueId) {
+		return new StatueData(worldName, x, y, z, yaw, pitch, entityType, newStatueId);
+	}
+
+	/**
+	 * Returns a copy of this snapshot with a different rotation.
+	 * @param newYaw The new yaw angle.
+	 * @param newPitch The new pitch angle.
+	 * @return The new snapshot.
+	 */
+	StatueData withRotation(float newYaw, float newPitch) {
+		return new StatueData(worldName, x, y, z, newYaw, newPitch, entityType, statueId);
+	}
+
+	/**
+	 * Returns a copy of this snapshot at different coordinates in the same world.
+	 * @param newX The new X coordinate.
+	 * @param newY The new Y coordinate.
+	 * @param newZ The new Z coordinate.
+	 * @return The new snapshot.
+	 */
+	StatueData withPosition(double newX, double newY, double newZ) {
+		return new StatueData(worldName, newX, newY, newZ, yaw, pitch, entityType, statueId);
+	}
+
+	/**
+	 * Checks whether another snapshot stands at exactly the same world and coordinates.
+	 * @param other The snapshot to compare with.
+	 * @return True if only the rotation (or nothing) differs.
+	 */
+	boolean samePosition(StatueData other) {
+		return x == other.x && y == other.y && z == other.z && worldName.equals(other.worldName);
+	}
+
+	/**
+	 * Writes this snapshot into a statue's configuration section using the same
+	 * keys the plugin has always used in the player YAML files.
+	 * @param statueSection The configuration section to write into.
+	 */
+	void writeTo(ConfigurationSection statueSection) {
+		statueSection.set("world", worldName);
+		statueSection.set("x", x);
+		statueSection.set("y", y);
+		statueSection.set("z", z);
+		statueSection.set("yaw", yaw);
+		statueSection.set("pitch", pitch);
+		statueSection.set("entityType", entityType);
+		if (statueId != NO_ID) {
+			statueSection.set("entityName", statueId);
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package main;
+
+import org.bukkit.entity.EntityType;
+
+import java.util.UUID;
+
+/**
+ * An immutable, fully validated statue produced by the startup loader, an archive
+ * import or a registry snapshot. Descriptors are built on worker threads and turned
+ * into {@link Statue} records on the server thread.
+ */
+final class StatueDescriptor {
+	private final UUID ownerId;
+	private final String name;
+	private final EntityType entityType;
+	private final StatueData data;
+
+	StatueDescriptor(UUID ownerId, String name, EntityType entityType, StatueData data) {
+		this.ownerId = ownerId;
+		this.name = name;
+		this.entityType = entityType;
+		this.data = data;
+	}
+
+	public UUID ownerId() {
+		return ownerId;
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public EntityType entityType() {
+		return entityType;
+	}
+
+	public StatueData data() {
+		return data;
+	}
+}
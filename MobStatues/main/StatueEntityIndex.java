@@ -0,0 +1,202 @@
+package main;
+
+/**
+ * Maps the UUIDs of live statue entities to their statue records. Keys are stored
+ * as (msb, lsb) pairs in parallel primitive arrays with linear probing, so a lookup
+ * for an entity that is not a statue costs a hash and usually a single array probe,
+ * and never allocates.
+ *
+ * <p>Entity events arrive on every region thread on region-threaded servers, so the
+ * table is split into stripes chosen by the top bits of the hash, each guarded by its
+ * own monitor. Threads only contend when they touch the same stripe, and on a
+ * single-threaded server every lock is uncontended.
+ */
+final class StatueEntityIndex {
+	private static final int STRIPE_BITS = 4;
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+
+	StatueEntityIndex() {
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = new Stripe();
+		}
+	}
+
+	/**
+	 * Finds the statue an entity belongs to.
+	 * @param msb The most significant bits of the entity UUID.
+	 * @param lsb The least significant bits of the entity UUID.
+	 * @return The statue, or null if the entity is not a statue.
+	 */
+	Statue get(long msb, long lsb) {
+		int hash = hash(msb, lsb);
+		return stripes[hash >>> (32 - STRIPE_BITS)].get(msb, lsb, hash);
+	}
+
+	/**
+	 * Associates an entity UUID with a statue, replacing any previous mapping.
+	 * @param msb The most significant bits of the entity UUID.
+	 * @param lsb The least significant bits of the entity UUID.
+	 * @param statue The statue record.
+	 */
+	void put(long msb, long lsb, Statue statue) {
+		int hash = hash(msb, lsb);
+		stripes[hash >>> (32 - STRIPE_BITS)].put(msb, lsb, hash, statue);
+	}
+
+	/**
+	 * Removes an entity UUID.
+	 * @param msb The most significant bits of the entity UUID.
+	 * @param lsb The least significant bits of the entity UUID.
+	 * @return The statue that was mapped, or null.
+	 */
+	Statue remove(long msb, long lsb) {
+		int hash = hash(msb, lsb);
+		return stripes[hash >>> (32 - STRIPE_BITS)].remove(msb, lsb, hash);
+	}
+
+	/**
+	 * @return The number of mapped entities; with concurrent changes, a recent count.
+	 */
+	int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			size += stripe.size();
+		}
+		return size;
+	}
+
+	void clear() {
+		for (Stripe stripe : stripes) {
+			stripe.clear();
+		}
+	}
+
+	private static int hash(long msb, long lsb) {
+		long h = msb ^ Long.rotateLeft(lsb, 32);
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+
+	/**
+	 * One open-addressed table. Probing uses the low bits of the hash, which are
+	 * independent of the top bits that picked the stripe.
+	 */
+	private static final class Stripe {
+		private long[] msbs;
+		private long[] lsbs;
+		private Statue[] values;
+		private int mask;
+		private int size;
+
+		Stripe() {
+			allocate(INITIAL_CAPACITY);
+		}
+
+		synchronized Statue get(long msb, long lsb, int hash) {
+			int pos = hash & mask;
+			Statue value;
+			while ((value = values[pos]) != null) {
+				if (msbs[pos] == msb && lsbs[pos] == lsb) {
+					return value;
+				}
+				pos = (pos + 1) & mask;
+			}
+			return null;
+		}
+
+		synchronized void put(long msb, long lsb, int hash, Statue statue) {
+			int pos = hash & mask;
+			while (values[pos] != null) {
+				if (msbs[pos] == msb && lsbs[pos] == lsb) {
+					values[pos] = statue;
+					return;
+				}
+				pos = (pos + 1) & mask;
+			}
+			msbs[pos] = msb;
+			lsbs[pos] = lsb;
+			values[pos] = statue;
+			if (++size > (mask + 1) / 2) {
+				rehash((mask + 1) * 2);
+			}
+		}
+
+		/**
+		 * Removes an entity UUID. Later entries of the same probe run are shifted back so
+		 * lookups never need tombstones.
+		 */
+		synchronized Statue remove(long msb, long lsb, int hash) {
+			int pos = hash & mask;
+			Statue value;
+			while ((value = values[pos]) != null) {
+				if (msbs[pos] == msb && lsbs[pos] == lsb) {
+					size--;
+					shiftBack(pos);
+					return value;
+				}
+				pos = (pos + 1) & mask;
+			}
+			return null;
+		}
+
+		synchronized int size() {
+			return size;
+		}
+
+		synchronized void clear() {
+			allocate(INITIAL_CAPACITY);
+		}
+
+		private void shiftBack(int pos) {
+			for (;;) {
+				int last = pos;
+				pos = (pos + 1) & mask;
+				for (;;) {
+					if (values[pos] == null) {
+						values[last] = null;
+						return;
+					}
+					int ideal = hash(msbs[pos], lsbs[pos]) & mask;
+					if (last <= pos ? last >= ideal || ideal > pos : last >= ideal && ideal > pos) {
+						break;
+					}
+					pos = (pos + 1) & mask;
+				}
+				msbs[last] = msbs[pos];
+				lsbs[last] = lsbs[pos];
+				values[last] = values[pos];
+			}
+		}
+
+		private void rehash(int capacity) {
+			long[] oldMsbs = msbs;
+			long[] oldLsbs = lsbs;
+			Statue[] oldValues = values;
+			allocate(capacity);
+			for (int i = 0; i < oldValues.length; i++) {
+				if (oldValues[i] != null) {
+					int pos = hash(oldMsbs[i], oldLsbs[i]) & mask;
+					while (values[pos] != null) {
+						pos = (pos + 1) & mask;
+					}
+					msbs[pos] = oldMsbs[i];
+					lsbs[pos] = oldLsbs[i];
+					values[pos] = oldValues[i];
+					size++;
+				}
+			}
+		}
+
+		private void allocate(int capacity) {
+			msbs = new long[capacity];
+			lsbs = new long[capacity];
+			values = new Statue[capacity];
+			mask = capacity - 1;
+			size = 0;
+		}
+	}
+}
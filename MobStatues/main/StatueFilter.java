@@ -0,0 +1,128 @@
+package main;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * Selects statues by world, owner, entity type and bounding box for the bulk commands. Filters are
+ * given as command arguments:
+ * <pre>
+ * world:&lt;name&gt;
+ * owner:&lt;UUID or online player name&gt;
+ * type:&lt;entity type&gt;
+ * box:&lt;x1&gt;,&lt;y1&gt;,&lt;z1&gt;,&lt;x2&gt;,&lt;y2&gt;,&lt;z2&gt;
+ * </pre>
+ * A statue must match every given filter; without filters every statue matches.
+ */
+final class StatueFilter {
+	static final String[] KEYS = { "world:", "owner:", "type:", "box:" };
+	static final String USAGE = "Filters: world:<name>, owner:<player>, type:<entity> and box:<x1>,<y1>,<z1>,<x2>,<y2>,<z2>.";
+
+	private String worldName;
+	private UUID ownerId;
+	private String entityType;
+	private boolean boxed;
+	private double minX;
+	private double minY;
+	private double minZ;
+	private double maxX;
+	private double maxY;
+	private double maxZ;
+
+	/**
+	 * Parses filter arguments.
+	 * @param args The command arguments.
+	 * @param from The index of the first filter argument.
+	 * @return The filter.
+	 * @throws IllegalArgumentException If an argument is not a valid filter; the message
+	 *                                  explains which.
+	 */
+	static StatueFilter parse(String[] args, int from) {
+		StatueFilter filter = new StatueFilter();
+		for (int i = from; i < args.length; i++) {
+			String arg = args[i];
+			int colon = arg.indexOf(':');
+			String key = colon < 0 ? arg.toLowerCase() : arg.substring(0, colon).toLowerCase();
+			String value = colon < 0 ? "" : arg.substring(colon + 1);
+			if (value.isEmpty()) {
+				throw new IllegalArgumentException("Unknown filter '" + arg + "'. " + USAGE);
+			}
+			switch (key) {
+				case "world" -> filter.worldName = value;
+				case "owner" -> filter.ownerId = parseOwner(value);
+				case "type" -> filter.entityType = parseType(value);
+				case "box" -> filter.parseBox(value);
+				default -> throw new IllegalArgumentException("Unknown filter '" + arg + "'. " + USAGE);
+			}
+		}
+		return filter;
+	}
+
+	private static UUID parseOwner(String value) {
+		try {
+			return UUID.fromString(value);
+		} catch (IllegalArgumentException e) {
+			Player player = Bukkit.getPlayerExact(value);
+			if (player == null) {
+				throw new IllegalArgumentException("Unknown owner '" + value + "'. Use a UUID or the name of an online player.");
+			}
+			return player.getUniqueId();
+		}
+	}
+
+	private static String parseType(String value) {
+		try {
+			return EntityType.valueOf(value.toUpperCase()).name();
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown entity type '" + value + "'.");
+		}
+	}
+
+	private void parseBox(String value) {
+		String[] parts = value.split(",");
+		if (parts.length != 6) {
+			throw new IllegalArgumentException("A box needs six coordinates: box:<x1>,<y1>,<z1>,<x2>,<y2>,<z2>.");
+		}
+		double[] coordinates = new double[6];
+		for (int i = 0; i < 6; i++) {
+			try {
+				coordinates[i] = Double.parseDouble(parts[i]);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid box coordinate '" + parts[i] + "'.");
+			}
+		}
+		boxed = true;
+		minX = Math.min(coordinates[0], coordinates[3]);
+		minY = Math.min(coordinates[1], coordinates[4]);
+		minZ = Math.min(coordinates[2], coordinates[5]);
+		maxX = Math.max(coordinates[0], coordinates[3]);
+		maxY = Math.max(coordinates[1], coordinates[4]);
+		maxZ = Math.max(coordinates[2], coordinates[5]);
+	}
+
+	/**
+	 * @return True if no filter was given, so every statue matches.
+	 */
+	boolean isEmpty() {
+		return worldName == null && ownerId == null && entityType == null && !boxed;
+	}
+
+	/**
+	 * @param ownerId The UUID of the player who owns the statue.
+	 * @param data The statue's state.
+	 * @return True if the statue passes every filter.
+	 */
+	boolean matches(UUID ownerId, StatueData data) {
+		if (this.ownerId != null && !this.ownerId.equals(ownerId)) return false;
+		if (worldName != null && !worldName.equals(data.worldName())) return false;
+		if (entityType != null && !entityType.equals(data.entityType())) return false;
+		if (!boxed) return true;
+		double x = data.x();
+		double y = data.y();
+		double z = data.z();
+		return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+	}
+}
@@ -0,0 +1,245 @@
+package main;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Named groups of a player's statues that move and rotate as one unit around a shared
+ * pivot. Members are kept by statue name, like the statues themselves, and a statue
+ * leaves its groups when it is removed. Groups are kept in groups.yml apart from the
+ * statue store and are written as a whole, since they are small and change rarely.
+ *
+ * <p>Groups are immutable and replaced on every change, so a group handed out by
+ * {@link #get(UUID, String)} can be used on any thread.
+ */
+final class StatueGroups {
+
+	/**
+	 * A group: its pivot and the names of its member statues, in the order they joined.
+	 */
+	static final class Group {
+		private final String name;
+		private final String worldName;
+		private final double x;
+		private final double y;
+		private final double z;
+		private final List<String> members;
+
+		Group(String name, String worldName, double x, double y, double z, ObjectList<String> members) {
+			this.name = name;
+			this.worldName = worldName;
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.members = Collections.unmodifiableList(members);
+		}
+
+		public String name() {
+			return name;
+		}
+
+		public String worldName() {
+			return worldName;
+		}
+
+		public double x() {
+			return x;
+		}
+
+		public double y() {
+			return y;
+		}
+
+		public double z() {
+			return z;
+		}
+
+		public List<String> members() {
+			return members;
+		}
+
+		/**
+		 * @return A copy of this group with a different pivot.
+		 */
+		Group withPivot(String newWorldName, double newX, double newY, double newZ) {
+			return new Group(name, newWorldName, newX, newY, newZ, new ObjectArrayList<>(members));
+		}
+
+		/**
+		 * @return A copy of this group with different members.
+		 */
+		Group withMembers(ObjectList<String> newMembers) {
+			return new Group(name, worldName, x, y, z, newMembers);
+		}
+	}
+
+	private final File file;
+	private final Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, Group>> groups = new Object2ObjectOpenHashMap<>();
+
+	/**
+	 * Serialises writes of the groups file.
+	 */
+	private final Object writeLock = new Object();
+	private boolean dirty;
+
+	StatueGroups(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Reads the groups file, if there is one.
+	 */
+	synchronized void load() {
+		groups.clear();
+		if (!file.exists()) return;
+		YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+		for (String owner : config.getKeys(false)) {
+			UUID ownerId;
+			try {
+				ownerId = UUID.fromString(owner);
+			} catch (IllegalArgumentException e) {
+				continue;
+			}
+			ConfigurationSection ownerSection = config.getConfigurationSection(owner);
+			if (ownerSection == null) continue;
+			for (String groupName : ownerSection.getKeys(false)) {
+				ConfigurationSection section = ownerSection.getConfigurationSection(groupName);
+				if (section == null || section.getString("world") == null) continue;
+				put(ownerId, new Group(groupName, section.getString("world"), section.getDouble("x"), section.getDouble("y"),
+						section.getDouble("z"), new ObjectArrayList<>(section.getStringList("members"))));
+			}
+		}
+		dirty = false;
+	}
+
+	/**
+	 * Writes the groups file if a group changed since the last write. Safe to call from
+	 * any thread: every write takes the latest state, so overlapping saves never leave
+	 * an older state behind.
+	 * @throws IOException If the file cannot be written.
+	 */
+	void save() throws IOException {
+		synchronized (writeLock) {
+			String text;
+			synchronized (this) {
+				if (!dirty) return;
+				dirty = false;
+				text = serialize();
+			}
+			try {
+				AtomicFiles.replace(file, text);
+			} catch (IOException e) {
+				synchronized (this) {
+					dirty = true;
+				}
+				throw e;
+			}
+		}
+	}
+
+	private String serialize() {
+		YamlConfiguration config = new YamlConfiguration();
+		for (Object2ObjectOpenHashMap.Entry<UUID, Object2ObjectOpenHashMap<String, Group>> owner : groups.object2ObjectEntrySet()) {
+			for (Group group : owner.getValue().values()) {
+				ConfigurationSection section = config.createSection(owner.getKey() + "." + group.name());
+				section.set("world", group.worldName());
+				section.set("x", group.x());
+				section.set("y", group.y());
+				section.set("z", group.z());
+				section.set("members", group.members());
+			}
+		}
+		return config.saveToString();
+	}
+
+	/**
+	 * @param ownerId The UUID of the player who owns the group.
+	 * @param groupName The name of the group.
+	 * @return The group, or null if the player has no group by that name.
+	 */
+	synchronized Group get(UUID ownerId, String groupName) {
+		Object2ObjectOpenHashMap<String, Group> owned = groups.get(ownerId);
+		return owned != null ? owned.get(groupName) : null;
+	}
+
+	/**
+	 * Adds or replaces a group.
+	 * @param ownerId The UUID of the player who owns the group.
+	 * @param group The group.
+	 */
+	synchronized void put(UUID ownerId, Group group) {
+		groups.computeIfAbsent(ownerId, k -> new Object2ObjectOpenHashMap<>()).put(group.name(), group);
+		dirty = true;
+	}
+
+	/**
+	 * Deletes a group. Its statues are not affected.
+	 * @param ownerId The UUID of the player who owns the group.
+	 * @param groupName The name of the group.
+	 * @return False if there was no such group.
+	 */
+	synchronized boolean remove(UUID ownerId, String groupName) {
+		Object2ObjectOpenHashMap<String, Group> owned = groups.get(ownerId);
+		if (owned == null || owned.remove(groupName) == null) return false;
+		if (owned.isEmpty()) {
+			groups.remove(ownerId);
+		}
+		dirty = true;
+		return true;
+	}
+
+	/**
+	 * @param ownerId The UUID of the player.
+	 * @return The player's groups, possibly empty.
+	 */
+	synchronized ObjectList<Group> ownedBy(UUID ownerId) {
+		Object2ObjectOpenHashMap<String, Group> owned = groups.get(ownerId);
+		return owned != null ? new ObjectArrayList<>(owned.values()) : new ObjectArrayList<>();
+	}
+
+	/**
+	 * Takes a removed statue out of every group of its owner.
+	 * @param ownerId The UUID of the player who owned the statue.
+	 * @param statueName The name of the statue.
+	 */
+	synchronized void statueRemoved(UUID ownerId, String statueName) {
+		Object2ObjectOpenHashMap<String, Group> owned = groups.get(ownerId);
+		if (owned == null) return;
+		for (Object2ObjectOpenHashMap.Entry<String, Group> entry : owned.object2ObjectEntrySet()) {
+			Group group = entry.getValue();
+			if (group.members().contains(statueName)) {
+				ObjectArrayList<String> members = new ObjectArrayList<>(group.members());
+				members.remove(statueName);
+				entry.setValue(group.withMembers(members));
+				dirty = true;
+			}
+		}
+	}
+
+	/**
+	 * Collects the names of a player's groups that start with a prefix.
+	 * @param ownerId The UUID of the player.
+	 * @param prefix The prefix, lower case.
+	 * @param out The list to add the names to.
+	 */
+	synchronized void collectNames(UUID ownerId, String prefix, Collection<String> out) {
+		Object2ObjectOpenHashMap<String, Group> owned = groups.get(ownerId);
+		if (owned == null) return;
+		for (String groupName : owned.keySet()) {
+			if (groupName.startsWith(prefix)) {
+				out.add(groupName);
+			}
+		}
+	}
+}
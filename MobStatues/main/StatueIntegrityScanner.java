@@ -0,0 +1,212 @@
+package main;
+
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+
+import java.util.ArrayDeque;
+import java.util.logging.Logger;
+
+/**
+ * Finds statue entities the plugin has lost track of, such as copies left in the world
+ * by an unclean shutdown, and hands them to a handler one chunk at a time. Chunks are
+ * queued when their entities load and, on a timer, every loaded chunk is queued again;
+ * the queue is worked off at a fixed number of chunks per tick, so a sweep never costs
+ * more than a few chunk lookups in any one tick.
+ *
+ * <p>Chunks may be queued from any thread. On region-threaded servers each chunk is
+ * checked on the thread that owns it, and the periodic sweep is skipped, because the
+ * loaded chunks cannot be listed from a single thread there.
+ */
+final class StatueIntegrityScanner {
+
+	/**
+	 * Checks the entities of one chunk.
+	 */
+	interface Handler {
+		/**
+		 * Removes or adopts leftover statue entities in a loaded chunk whose entities
+		 * have loaded. Called on the thread that owns the chunk.
+		 * @param chunk The chunk.
+		 */
+		void scan(Chunk chunk);
+	}
+
+	/**
+	 * A queued chunk. Worlds are kept by name so the queue never holds on to an
+	 * unloaded world.
+	 */
+	private static final class PendingChunk {
+		private final String worldName;
+		private final long chunkKey;
+
+		PendingChunk(String worldName, long chunkKey) {
+			this.worldName = worldName;
+			this.chunkKey = chunkKey;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof PendingChunk pending && pending.chunkKey == chunkKey && pending.worldName.equals(worldName);
+		}
+
+		@Override
+		public int hashCode() {
+			return worldName.hashCode() * 31 + Long.hashCode(chunkKey);
+		}
+	}
+
+	/**
+	 * Queued chunks in order, and the same chunks as a set so a chunk is queued at most
+	 * once. Both are guarded by the queue's monitor.
+	 */
+	private final ArrayDeque<PendingChunk> queue = new ArrayDeque<>();
+	private final ObjectOpenHashSet<PendingChunk> queued = new ObjectOpenHashSet<>();
+
+	private final Handler handler;
+	private final Logger logger;
+	private final StatueMetrics metrics;
+	private final int chunksPerTick;
+	private final long sweepIntervalTicks;
+	private StatueScheduler scheduler;
+	private StatueScheduler.Task drainTask;
+	private StatueScheduler.Task sweepTask;
+	private boolean scannedSinceReport;
+	private long reportedFixes;
+
+	/**
+	 * @param handler Checks each chunk.
+	 * @param logger Receives a summary whenever the queue runs empty after fixes.
+	 * @param metrics Holds the scanner's counters.
+	 * @param chunksPerTick The most chunks checked per tick.
+	 * @param sweepIntervalSeconds How often every loaded chunk is queued; 0 disables sweeps.
+	 */
+	StatueIntegrityScanner(Handler handler, Logger logger, StatueMetrics metrics, int chunksPerTick, long sweepIntervalSeconds) {
+		this.handler = handler;
+		this.logger = logger;
+		this.metrics = metrics;
+		this.chunksPerTick = Math.max(1, chunksPerTick);
+		this.sweepIntervalTicks = Math.max(0L, sweepIntervalSeconds) * 20L;
+	}
+
+	/**
+	 * Starts checking queued chunks, and starts the periodic sweep if enabled, beginning
+	 * with a sweep right away. Chunks queued before this call are kept.
+	 * @param scheduler The scheduler to run on.
+	 */
+	void start(StatueScheduler scheduler) {
+		this.scheduler = scheduler;
+		drainTask = scheduler.runGlobalTimer(this::drain, 1L, 1L);
+		if (sweepIntervalTicks > 0 && !scheduler.regionThreaded()) {
+			sweepTask = scheduler.runGlobalTimer(this::sweep, 1L, sweepIntervalTicks);
+		}
+	}
+
+	/**
+	 * Stops the scanner and forgets the queued chunks.
+	 */
+	void stop() {
+		if (drainTask != null) {
+			drainTask.cancel();
+			drainTask = null;
+		}
+		if (sweepTask != null) {
+			sweepTask.cancel();
+			sweepTask = null;
+		}
+		synchronized (queue) {
+			queue.clear();
+			queued.clear();
+		}
+	}
+
+	/**
+	 * Queues a chunk for checking, unless it is already queued.
+	 * @param worldName The name of the chunk's world.
+	 * @param chunkKey The packed chunk key.
+	 */
+	void queue(String worldName, long chunkKey) {
+		PendingChunk chunk = new PendingChunk(worldName, chunkKey);
+		synchronized (queue) {
+			if (queued.add(chunk)) {
+				queue.add(chunk);
+			}
+		}
+	}
+
+	/**
+	 * @return The number of chunks waiting to be checked.
+	 */
+	int queueDepth() {
+		synchronized (queue) {
+			return queue.size();
+		}
+	}
+
+	private PendingChunk poll() {
+		synchronized (queue) {
+			PendingChunk chunk = queue.poll();
+			if (chunk != null) {
+				queued.remove(chunk);
+			}
+			return chunk;
+		}
+	}
+
+	/**
+	 * Hands the next chunks to the handler on the threads that own them. Chunks that
+	 * unloaded or whose entities have not loaded yet are skipped; their entities are
+	 * checked when they load.
+	 */
+	private void drain() {
+		for (int i = 0; i < chunksPerTick; i++) {
+			PendingChunk pending = poll();
+			if (pending == null) {
+				if (scannedSinceReport) {
+					scannedSinceReport = false;
+					report();
+				}
+				return;
+			}
+			scannedSinceReport = true;
+			World world = Bukkit.getWorld(pending.worldName);
+			if (world == null) continue;
+			int chunkX = StatueChunkIndex.chunkX(pending.chunkKey);
+			int chunkZ = StatueChunkIndex.chunkZ(pending.chunkKey);
+			scheduler.runAt(world, chunkX, chunkZ, () -> {
+				if (!world.isChunkLoaded(chunkX, chunkZ)) return;
+				Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+				if (!chunk.isEntitiesLoaded()) return;
+				handler.scan(chunk);
+				metrics.chunksScanned.increment();
+			});
+		}
+	}
+
+	/**
+	 * Logs the scanner's totals if it fixed anything since the last summary.
+	 */
+	private void report() {
+		long fixes = metrics.orphansRemoved.get() + metrics.duplicatesRemoved.get() + metrics.markersRemoved.get() + metrics.entitiesAdopted.get();
+		if (fixes == reportedFixes) return;
+		reportedFixes = fixes;
+		logger.info("Statue integrity scanner totals: " + metrics.orphansRemoved.get() + " orphaned and " + metrics.duplicatesRemoved.get()
+				+ " duplicate statue entities removed, " + metrics.entitiesAdopted.get() + " adopted, " + metrics.markersRemoved.get()
+				+ " stray markers removed.");
+	}
+
+	/**
+	 * Queues every loaded chunk. Chunks still queued from the previous sweep keep their
+	 * place.
+	 */
+	private void sweep() {
+		for (World world : Bukkit.getWorlds()) {
+			String worldName = world.getName();
+			for (Chunk chunk : world.getLoadedChunks()) {
+				queue(worldName, StatueChunkIndex.chunkKey(chunk.getX(), chunk.getZ()));
+			}
+		}
+	}
+}
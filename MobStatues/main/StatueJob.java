@@ -0,0 +1,143 @@
+package main;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.bukkit.command.CommandSender;
+
+/**
+ * A bulk statue operation spread over server ticks, such as an /msadmin purge. The
+ * statues are snapshotted when the job starts; every tick the job checks statues
+ * against its filter until its time budget is spent and applies its action to the
+ * ones that match. Progress is reported to the sender every few seconds.
+ *
+ * <p>Changes are not queued for saving one at a time. They are committed to the
+ * persistence queue as one batch when the job ends or is cancelled, so each affected
+ * player is written once however many of their statues the job touched.
+ */
+final class StatueJob {
+
+	/**
+	 * The change a job makes to each matching statue. Runs on the global thread.
+	 */
+	interface Action {
+		/**
+		 * @param statue The statue.
+		 * @param current A snapshot of the statue's owner, name and state.
+		 * @return The statue's new state, or null if the action removed the statue.
+		 */
+		StatueData apply(Statue statue, StatueDescriptor current);
+	}
+
+	private static final long PROGRESS_INTERVAL_NANOS = 5_000_000_000L;
+
+	private final String name;
+	private final CommandSender sender;
+	private final StatueRegistry registry;
+	private final StatuePersistence persistence;
+	private final StatueFilter filter;
+	private final Action action;
+	private final long budgetNanos;
+	private final Runnable onFinish;
+	private final ObjectArrayList<Statue> statues;
+	private final ObjectArrayList<Statue> changed = new ObjectArrayList<>();
+	private final ObjectArrayList<StatueDescriptor> removed = new ObjectArrayList<>();
+	private StatueScheduler.Task task;
+	private int next;
+	private long startNanos;
+	private long lastReportNanos;
+	private boolean finished;
+
+	/**
+	 * @param name What the job is called in messages, such as "purge".
+	 * @param sender Who receives the progress and result messages.
+	 * @param registry The statue registry.
+	 * @param persistence The persistence queue the job's changes are committed to.
+	 * @param filter The statues the job applies to.
+	 * @param action The change made to each matching statue.
+	 * @param budgetMillis Time, in milliseconds, the job may use per tick.
+	 * @param onFinish Called once the job has ended, whether finished or cancelled.
+	 */
+	StatueJob(String name, CommandSender sender, StatueRegistry registry, StatuePersistence persistence, StatueFilter filter,
+			Action action, double budgetMillis, Runnable onFinish) {
+		this.name = name;
+		this.sender = sender;
+		this.registry = registry;
+		this.persistence = persistence;
+		this.filter = filter;
+		this.action = action;
+		this.budgetNanos = (long) (Math.max(0.05, budgetMillis) * 1_000_000L);
+		this.onFinish = onFinish;
+		this.statues = registry.statues();
+	}
+
+	/**
+	 * Starts working through the statues once per tick.
+	 * @param scheduler The scheduler to run on.
+	 */
+	synchronized void start(StatueScheduler scheduler) {
+		startNanos = System.nanoTime();
+		lastReportNanos = startNanos;
+		sender.sendMessage("Statue " + name + " started: checking " + statues.size() + " statues...");
+		task = scheduler.runGlobalTimer(this::tick, 1L, 1L);
+	}
+
+	/**
+	 * Stops the job and commits what it has changed so far.
+	 */
+	synchronized void cancel() {
+		finish("cancelled");
+	}
+
+	private synchronized void tick() {
+		if (finished) return;
+		long deadline = System.nanoTime() + budgetNanos;
+		do {
+			if (next == statues.size()) {
+				finish("finished");
+				return;
+			}
+			Statue statue = statues.set(next++, null);
+			StatueDescriptor current = registry.describe(statue);
+			if (current == null || !filter.matches(current.ownerId(), current.data())) continue;
+			if (action.apply(statue, current) == null) {
+				removed.add(current);
+			} else {
+				changed.add(statue);
+			}
+		} while (System.nanoTime() < deadline);
+		long now = System.nanoTime();
+		if (now - lastReportNanos >= PROGRESS_INTERVAL_NANOS) {
+			lastReportNanos = now;
+			sender.sendMessage("Statue " + name + ": " + next + " of " + statues.size() + " statues checked, "
+					+ (changed.size() + removed.size()) + " changed so far...");
+		}
+	}
+
+	/**
+	 * Commits the job's changes, reading the current state of each changed statue so
+	 * edits made by players while the job ran are not overwritten. Removals are skipped
+	 * for names that have been taken by a new statue since.
+	 */
+	private void finish(String outcome) {
+		if (finished) return;
+		finished = true;
+		if (task != null) {
+			task.cancel();
+		}
+		StatuePersistence.Batch batch = new StatuePersistence.Batch();
+		for (Statue statue : changed) {
+			StatueDescriptor current = registry.describe(statue);
+			if (current != null) {
+				batch.save(current.ownerId(), current.name(), current.data());
+			}
+		}
+		for (StatueDescriptor statue : removed) {
+			if (registry.get(statue.ownerId(), statue.name()) == null) {
+				batch.remove(statue.ownerId(), statue.name());
+			}
+		}
+		persistence.commit(batch);
+		sender.sendMessage("Statue " + name + " " + outcome + ": " + (changed.size() + removed.size()) + " statues changed, "
+				+ next + " of " + statues.size() + " checked in " + (System.nanoTime() - startNanos) / 1_000_000L + " ms.");
+		onFinish.run();
+	}
+}
@@ -0,0 +1,106 @@
+package main;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads statues from a {@link StatueStore} on a pool of worker threads. Listing,
+ * decoding and validation all happen off the server thread; the result is a list of
+ * immutable {@link StatueDescriptor}s ready to be registered and spawned.
+ */
+final class StatueLoader {
+
+	/**
+	 * Validates one stored statue. Runs on worker threads, so implementations must be
+	 * thread-safe and must not touch the Bukkit API.
+	 */
+	interface Describer {
+		/**
+		 * @param playerId The UUID of the player who owns the statue.
+		 * @param statueName The name of the statue.
+		 * @param data The stored data for this statue.
+		 * @return The descriptor, or null if the statue is invalid and must be skipped.
+		 */
+		StatueDescriptor describe(UUID playerId, String statueName, StatueData data);
+	}
+
+	private final ExecutorService workers;
+	private final int threads;
+
+	StatueLoader(int threads) {
+		this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		AtomicInteger counter = new AtomicInteger();
+		this.workers = Executors.newFixedThreadPool(this.threads, r -> {
+			Thread thread = new Thread(r, "MobStatues-Loader-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	int threads() {
+		return threads;
+	}
+
+	/**
+	 * Starts loading every statue in the store. The worker pool shuts itself down
+	 * once loading has finished.
+	 * @param store The store to load from.
+	 * @param describer Validates each stored statue.
+	 * @return A future completing with the descriptors of every valid statue.
+	 */
+	CompletableFuture<ObjectArrayList<StatueDescriptor>> load(StatueStore store, Describer describer) {
+		return CompletableFuture.supplyAsync(() -> call(store::loadParts), workers)
+				.thenCompose(parts -> {
+					ObjectList<CompletableFuture<ObjectArrayList<StatueDescriptor>>> futures = new ObjectArrayList<>(parts.size());
+					for (Callable<Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>>> part : parts) {
+						futures.add(CompletableFuture.supplyAsync(() -> describe(call(part), describer), workers));
+					}
+					return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+						ObjectArrayList<StatueDescriptor> descriptors = new ObjectArrayList<>();
+						for (CompletableFuture<ObjectArrayList<StatueDescriptor>> future : futures) {
+							descriptors.addAll(future.join());
+						}
+						return descriptors;
+					});
+				})
+				.whenComplete((descriptors, error) -> workers.shutdown());
+	}
+
+	/**
+	 * Stops any loading still in progress. Pending parts are discarded.
+	 */
+	void cancel() {
+		workers.shutdownNow();
+	}
+
+	private static ObjectArrayList<StatueDescriptor> describe(Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>> stored, Describer describer) {
+		ObjectArrayList<StatueDescriptor> descriptors = new ObjectArrayList<>();
+		for (Map.Entry<UUID, Object2ObjectOpenHashMap<String, StatueData>> owner : stored.entrySet()) {
+			for (Map.Entry<String, StatueData> statue : owner.getValue().entrySet()) {
+				StatueDescriptor descriptor = describer.describe(owner.getKey(), statue.getKey(), statue.getValue());
+				if (descriptor != null) {
+					descriptors.add(descriptor);
+				}
+			}
+		}
+		return descriptors;
+	}
+
+	private static <T> T call(Callable<T> callable) {
+		try {
+			return callable.call();
+		} catch (Exception e) {
+			throw new CompletionException(e);
+		}
+	}
+}
@@ -0,0 +1,333 @@
+package main;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters, gauges and latency histograms describing what the plugin does and costs.
+ * Counters and histograms may be updated from any thread. Gauges read server state and
+ * are only evaluated on the server thread, when a report is built. Reports are shown by
+ * /msstats and written to a file in the Prometheus text format, which node_exporter's
+ * textfile collector and most local scrapers read as is.
+ */
+final class StatueMetrics {
+	private static final String PREFIX = "mobstatues_";
+
+	/**
+	 * Upper bounds of the latency histogram buckets, in microseconds. Anything slower
+	 * falls into a final unbounded bucket.
+	 */
+	private static final long[] BUCKET_MICROS = { 10, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 1_000_000, 5_000_000 };
+
+	/**
+	 * The bucket bounds in seconds, as written to the metrics file.
+	 */
+	private static final String[] BUCKET_LABELS = new String[BUCKET_MICROS.length];
+
+	static {
+		for (int i = 0; i < BUCKET_MICROS.length; i++) {
+			BUCKET_LABELS[i] = BigDecimal.valueOf(BUCKET_MICROS[i], 6).stripTrailingZeros().toPlainString();
+		}
+	}
+
+	private final ObjectArrayList<Gauge> gauges = new ObjectArrayList<>();
+	private final ObjectArrayList<Counter> counters = new ObjectArrayList<>();
+	private final ObjectArrayList<Histogram> histograms = new ObjectArrayList<>();
+
+	/**
+	 * Per-command handler timings, one per plugin command, created by
+	 * {@link #registerCommands(Iterable)} when the plugin is enabled and only read after
+	 * that, so commands running on several region threads at once can look them up.
+	 */
+	private final Object2ObjectOpenHashMap<String, Histogram> commandTimes = new Object2ObjectOpenHashMap<>();
+
+	final Counter statuesLoaded = counter("statues_loaded_total", "Statues registered from storage at startup.", null, null);
+	final Counter statuesSpawned = counter("statue_spawns_total", "Statue entities spawned.", null, null);
+	final Counter statuesDespawned = counter("statue_despawns_total", "Statue entities removed.", null, null);
+	final Counter statuesReattached = counter("statue_reattaches_total", "Saved statue entities reattached to their statue instead of spawned.", null, null);
+	final Counter storeWrites = counter("store_writes_total", "Player batches written to statue storage.", null, null);
+	final Counter bytesWritten = counter("store_bytes_written_total", "Bytes written to statue storage.", null, null);
+	final Counter itemSpawnEvents = event("item_spawn");
+	final Counter chunkLoadEvents = event("chunk_load");
+	final Counter chunkUnloadEvents = event("chunk_unload");
+	final Counter entityDeathEvents = event("entity_death");
+	final Counter vehicleEnterEvents = event("vehicle_enter");
+	final Counter entitiesLoadEvents = event("entities_load");
+	final Counter entitiesUnloadEvents = event("entities_unload");
+	final Counter chunksScanned = counter("integrity_chunks_scanned_total", "Chunks checked by the integrity scanner.", null, null);
+	final Counter orphansRemoved = integrity("orphan");
+	final Counter duplicatesRemoved = integrity("duplicate");
+	final Counter markersRemoved = integrity("marker");
+	final Counter entitiesAdopted = integrity("adopted");
+	final Histogram loadTime = histogram("load_seconds", "Time spent loading and registering stored statues.", null, null);
+	final Histogram saveTime = histogram("save_seconds", "Time spent writing pending statue changes when the plugin is disabled.", null, null);
+	final Histogram flushTime = histogram("flush_seconds", "Time spent writing one batch of queued changes to storage.", null, null);
+
+	/**
+	 * Registers a value that is read whenever a report is built.
+	 * @param name The metric name, without the plugin prefix.
+	 * @param help A one-line description.
+	 * @param value Reads the current value on the server thread.
+	 */
+	void gauge(String name, String help, LongSupplier value) {
+		gauges.add(new Gauge(name, help, value));
+	}
+
+	/**
+	 * Creates the handler timings of every plugin command. Called once, before any
+	 * command can run.
+	 * @param commandNames The command names from plugin.yml.
+	 */
+	void registerCommands(Iterable<String> commandNames) {
+		for (String commandName : commandNames) {
+			String name = commandName.toLowerCase();
+			if (!commandTimes.containsKey(name)) {
+				commandTimes.put(name, histogram("command_seconds", "Time spent in command handlers.", "command", name));
+			}
+		}
+	}
+
+	/**
+	 * Finds the handler timings of a command. Safe on any thread.
+	 * @param commandName The lowercase command name.
+	 * @return The histogram for the command, or null if it was not registered.
+	 */
+	Histogram command(String commandName) {
+		return commandTimes.get(commandName);
+	}
+
+	/**
+	 * Builds a short human-readable report, one line per metric. Server thread only.
+	 * @return The report lines.
+	 */
+	ObjectList<String> summary() {
+		ObjectList<String> lines = new ObjectArrayList<>();
+		for (Gauge gauge : gauges) {
+			lines.add(gauge.name + ": " + gauge.value.getAsLong());
+		}
+		for (Counter counter : counters) {
+			lines.add(counter.displayName() + ": " + counter.get());
+		}
+		for (Histogram histogram : histograms) {
+			long count = histogram.count();
+			if (count == 0) {
+				lines.add(histogram.displayName() + ": none");
+			} else {
+				lines.add(histogram.displayName() + ": " + count + " calls, avg " + millis(histogram.sumNanos() / count)
+						+ " ms, p99 <= " + histogram.percentileMillis(0.99) + " ms, max " + millis(histogram.maxNanos()) + " ms");
+			}
+		}
+		return lines;
+	}
+
+	/**
+	 * Renders every metric in the Prometheus text format. Server thread only.
+	 * @return The metrics file contents.
+	 */
+	String render() {
+		StringBuilder out = new StringBuilder(4096);
+		for (Gauge gauge : gauges) {
+			header(out, gauge.name, gauge.help, "gauge", null);
+			out.append(PREFIX).append(gauge.name).append(' ').append(gauge.value.getAsLong()).append('\n');
+		}
+		String previous = null;
+		for (Counter counter : counters) {
+			previous = header(out, counter.name, counter.help, "counter", previous);
+			out.append(PREFIX).append(counter.name).append(labels(counter.labelName, counter.labelValue, null))
+					.append(' ').append(counter.get()).append('\n');
+		}
+		previous = null;
+		for (Histogram histogram : histograms) {
+			previous = header(out, histogram.name, histogram.help, "histogram", previous);
+			String base = PREFIX + histogram.name;
+			long cumulative = 0;
+			for (int i = 0; i <= BUCKET_MICROS.length; i++) {
+				cumulative += histogram.buckets.get(i);
+				String bound = i < BUCKET_MICROS.length ? BUCKET_LABELS[i] : "+Inf";
+				out.append(base).append("_bucket").append(labels(histogram.labelName, histogram.labelValue, bound))
+						.append(' ').append(cumulative).append('\n');
+			}
+			String labels = labels(histogram.labelName, histogram.labelValue, null);
+			out.append(base).append("_sum").append(labels).append(' ').append(histogram.sumNanos() / 1e9).append('\n');
+			out.append(base).append("_count").append(labels).append(' ').append(cumulative).append('\n');
+		}
+		return out.toString();
+	}
+
+	private Counter counter(String name, String help, String labelName, String labelValue) {
+		Counter counter = new Counter(name, help, labelName, labelValue);
+		counters.add(counter);
+		return counter;
+	}
+
+	private Counter event(String eventName) {
+		return counter("events_total", "Event handler invocations.", "event", eventName);
+	}
+
+	private Counter integrity(String kind) {
+		return counter("integrity_fixes_total", "Leftover statue entities removed or adopted by the integrity scanner.", "kind", kind);
+	}
+
+	private Histogram histogram(String name, String help, String labelName, String labelValue) {
+		Histogram histogram = new Histogram(name, help, labelName, labelValue);
+		histograms.add(histogram);
+		return histogram;
+	}
+
+	/**
+	 * Writes the HELP and TYPE lines of a metric family, unless the previous metric
+	 * already belonged to it.
+	 * @return The name of the family now being written.
+	 */
+	private static String header(StringBuilder out, String name, String help, String type, String previous) {
+		if (!name.equals(previous)) {
+			out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+			out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+		}
+		return name;
+	}
+
+	private static String labels(String labelName, String labelValue, String bound) {
+		if (labelName == null && bound == null) return "";
+		StringBuilder labels = new StringBuilder("{");
+		if (labelName != null) {
+			labels.append(labelName).append("=\"").append(labelValue).append('"');
+		}
+		if (bound != null) {
+			if (labelName != null) {
+				labels.append(',');
+			}
+			labels.append("le=\"").append(bound).append('"');
+		}
+		return labels.append('}').toString();
+	}
+
+	private static String millis(long nanos) {
+		return BigDecimal.valueOf(nanos / 1_000L, 3).toPlainString();
+	}
+
+	private static final class Gauge {
+		private final String name;
+		private final String help;
+		private final LongSupplier value;
+
+		Gauge(String name, String help, LongSupplier value) {
+			this.name = name;
+			this.help = help;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * A monotonically increasing count.
+	 */
+	static final class Counter {
+		private final String name;
+		private final String help;
+		private final String labelName;
+		private final String labelValue;
+		private final LongAdder value = new LongAdder();
+
+		private Counter(String name, String help, String labelName, String labelValue) {
+			this.name = name;
+			this.help = help;
+			this.labelName = labelName;
+			this.labelValue = labelValue;
+		}
+
+		void increment() {
+			value.increment();
+		}
+
+		void add(long amount) {
+			value.add(amount);
+		}
+
+		long get() {
+			return value.sum();
+		}
+
+		private String displayName() {
+			return labelValue == null ? name : name + "{" + labelValue + "}";
+		}
+	}
+
+	/**
+	 * Durations counted into fixed buckets, with their sum and maximum.
+	 */
+	static final class Histogram {
+		private final String name;
+		private final String help;
+		private final String labelName;
+		private final String labelValue;
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_MICROS.length + 1);
+		private final LongAdder sumNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		private Histogram(String name, String help, String labelName, String labelValue) {
+			this.name = name;
+			this.help = help;
+			this.labelName = labelName;
+			this.labelValue = labelValue;
+		}
+
+		/**
+		 * Records one duration.
+		 * @param nanos The duration in nanoseconds.
+		 */
+		void record(long nanos) {
+			long micros = nanos / 1_000L;
+			int bucket = 0;
+			while (bucket < BUCKET_MICROS.length && micros > BUCKET_MICROS[bucket]) {
+				bucket++;
+			}
+			buckets.incrementAndGet(bucket);
+			sumNanos.add(nanos);
+			maxNanos.accumulateAndGet(nanos, Math::max);
+		}
+
+		long count() {
+			long count = 0;
+			for (int i = 0; i < buckets.length(); i++) {
+				count += buckets.get(i);
+			}
+			return count;
+		}
+
+		long sumNanos() {
+			return sumNanos.sum();
+		}
+
+		long maxNanos() {
+			return maxNanos.get();
+		}
+
+		/**
+		 * Estimates a percentile as the upper bound of the bucket it falls into.
+		 * @param fraction The percentile as a fraction, such as 0.99.
+		 * @return The bucket bound in milliseconds, or the maximum for the last bucket.
+		 */
+		private String percentileMillis(double fraction) {
+			long rank = (long) Math.ceil(count() * fraction);
+			long cumulative = 0;
+			for (int i = 0; i < BUCKET_MICROS.length; i++) {
+				cumulative += buckets.get(i);
+				if (cumulative >= rank) {
+					return BigDecimal.valueOf(BUCKET_MICROS[i], 3).stripTrailingZeros().toPlainString();
+				}
+			}
+			return millis(maxNanos());
+		}
+
+		private String displayName() {
+			return labelValue == null ? name : name + "{" + labelValue + "}";
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package main;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * A write-behind queue in front of a {@link StatueStore}. The server thread only
+ * records which statues of which player changed; a single background thread merges
+ * those changes and writes each dirty player at most once per flush interval.
+ */
+final class StatuePersistence {
+
+	/**
+	 * Pending changes keyed by player UUID, then by statue name. A null value marks a
+	 * statue that must be removed from the file. Guarded by its own monitor.
+	 */
+	private Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>> pending = new Object2ObjectOpenHashMap<>();
+
+	/**
+	 * Serialises flushes so the periodic writer and the shutdown barrier never write
+	 * to the store at the same time.
+	 */
+	private final Object flushLock = new Object();
+
+	private final StatueStore store;
+	private final long flushIntervalMillis;
+	private final Logger logger;
+	private final StatueMetrics metrics;
+	private ScheduledExecutorService writer;
+
+	StatuePersistence(StatueStore store, long flushIntervalMillis, Logger logger, StatueMetrics metrics) {
+		this.store = store;
+		this.flushIntervalMillis = Math.max(50L, flushIntervalMillis);
+		this.logger = logger;
+		this.metrics = metrics;
+	}
+
+	StatueStore store() {
+		return store;
+	}
+
+	/**
+	 * Starts the background writer thread.
+	 */
+	void start() {
+		writer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "MobStatues-Writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		writer.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Records the latest state of a statue. Later calls for the same statue replace
+	 * earlier ones that have not been written yet.
+	 * @param playerId The UUID of the player who owns the statue.
+	 * @param statueName The name of the statue.
+	 * @param data The snapshot to persist.
+	 */
+	void queueSave(UUID playerId, String statueName, StatueData data) {
+		synchronized (this) {
+			pending.computeIfAbsent(playerId, k -> new Object2ObjectOpenHashMap<>()).put(statueName, data);
+		}
+	}
+
+	/**
+	 * Records that a statue must be removed from its owner's file.
+	 * @param playerId The UUID of the player who owns the statue.
+	 * @param statueName The name of the statue.
+	 */
+	void queueRemove(UUID playerId, String statueName) {
+		synchronized (this) {
+			pending.computeIfAbsent(playerId, k -> new Object2ObjectOpenHashMap<>()).put(statueName, null);
+		}
+	}
+
+	/**
+	 * Queues every change of a batch at once and writes them on the writer thread right
+	 * away rather than at the next flush interval.
+	 * @param batch The changes.
+	 */
+	void commit(Batch batch) {
+		if (batch.changes.isEmpty()) return;
+		synchronized (this) {
+			for (Map.Entry<UUID, Object2ObjectOpenHashMap<String, StatueData>> entry : batch.changes.entrySet()) {
+				pending.computeIfAbsent(entry.getKey(), k -> new Object2ObjectOpenHashMap<>()).putAll(entry.getValue());
+			}
+		}
+		if (writer != null) {
+			writer.execute(this::flush);
+		}
+	}
+
+	/**
+	 * Changes collected apart from the pending queue, for bulk operations that should
+	 * reach the store together in a single write per player once they finish.
+	 */
+	static final class Batch {
+		private final Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>> changes = new Object2ObjectOpenHashMap<>();
+
+		void save(UUID playerId, String statueName, StatueData data) {
+			changes.computeIfAbsent(playerId, k -> new Object2ObjectOpenHashMap<>()).put(statueName, data);
+		}
+
+		void remove(UUID playerId, String statueName) {
+			changes.computeIfAbsent(playerId, k -> new Object2ObjectOpenHashMap<>()).put(statueName, null);
+		}
+	}
+
+	/**
+	 * Stops the background writer and synchronously writes everything still pending.
+	 * Nothing queued before this call is lost unless the store keeps failing; writes
+	 * that fail are retried once and the statues still unsaved are then reported.
+	 */
+	void shutdown() {
+		if (writer != null) {
+			writer.shutdown();
+			try {
+				if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+					logger.warning("Statue writer did not stop in time, flushing on the current thread.");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			writer = null;
+		}
+		flush();
+		flush();
+		int unsaved = 0;
+		synchronized (this) {
+			for (Object2ObjectOpenHashMap<String, StatueData> changes : pending.values()) {
+				unsaved += changes.size();
+			}
+		}
+		if (unsaved > 0) {
+			logger.warning("Could not save changes to " + unsaved + " statues; they are lost. See the errors above.");
+		}
+		try {
+			store.close();
+		} catch (IOException e) {
+			logger.warning("Failed to close the statue store.");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Swaps out the pending changes and applies them, writing each affected player
+	 * exactly once. A player whose write fails is queued again, so the next flush
+	 * retries it, and so is every written player if the store cannot be synced, since
+	 * their writes may not have reached the disk. Changes stay dirty until written.
+	 */
+	void flush() {
+		synchronized (flushLock) {
+			Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>> batch;
+			synchronized (this) {
+				if (pending.isEmpty()) return;
+				batch = pending;
+				pending = new Object2ObjectOpenHashMap<>();
+			}
+			long start = System.nanoTime();
+			for (Map.Entry<UUID, Object2ObjectOpenHashMap<String, StatueData>> entry : batch.entrySet()) {
+				try {
+					metrics.bytesWritten.add(store.write(entry.getKey(), entry.getValue()));
+					metrics.storeWrites.increment();
+				} catch (IOException e) {
+					logger.warning("Failed to save player data for player " + entry.getKey() + ", will retry.");
+					e.printStackTrace();
+					requeue(entry.getKey(), entry.getValue());
+				}
+			}
+			try {
+				store.sync();
+			} catch (IOException e) {
+				logger.warning("Failed to sync the statue store, will retry.");
+				e.printStackTrace();
+				for (Map.Entry<UUID, Object2ObjectOpenHashMap<String, StatueData>> entry : batch.entrySet()) {
+					requeue(entry.getKey(), entry.getValue());
+				}
+			}
+			metrics.flushTime.record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Puts back the changes of a failed write. Statues changed again since the batch was
+	 * taken keep their newer state.
+	 * @param playerId The UUID of the player.
+	 * @param changes The changes that were not written.
+	 */
+	private void requeue(UUID playerId, Object2ObjectOpenHashMap<String, StatueData> changes) {
+		synchronized (this) {
+			Object2ObjectOpenHashMap<String, StatueData> current = pending.get(playerId);
+			if (current == null) {
+				pending.put(playerId, changes);
+				return;
+			}
+			for (Map.Entry<String, StatueData> change : changes.entrySet()) {
+				if (!current.containsKey(change.getKey())) {
+					current.put(change.getKey(), change.getValue());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,784 @@
+package main;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+
+import org.bukkit.entity.EntityType;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Every statue known to the plugin, stored as parallel primitive arrays indexed by
+ * slot. World names are interned into a small table and entity types are stored by
+ * ordinal, so a statue costs a handful of array cells instead of a graph of objects.
+ * Statues are found by (owner, name) and by statue ID through open-addressed tables
+ * of slot numbers, and each owner's statues are chained through their slots so they
+ * can be listed without scanning the registry. Each owner also has a sorted index of
+ * statue names for prefix completion.
+ *
+ * <p>Each live slot has a {@link Statue} handle that other components hold on to.
+ * A handle is detached when its statue is removed, and the slot is then reused.
+ *
+ * <p>On region-threaded servers statues are created, edited and looked up from several
+ * region threads at once. Changes take the write lock and lookups the read lock. The
+ * per-slot accessors used in tight loops, such as radius queries, only validate an
+ * optimistic read and fall back to the read lock when a change raced with them.
+ */
+final class StatueRegistry {
+	private static final int INITIAL_CAPACITY = 256;
+	private static final int INITIAL_OWNER_CAPACITY = 64;
+	private static final EntityType[] ENTITY_TYPES = EntityType.values();
+
+	private final StampedLock lock = new StampedLock();
+
+	private long[] ownerMsbs;
+	private long[] ownerLsbs;
+	private long[] ids;
+	private double[] xs;
+	private double[] ys;
+	private double[] zs;
+	private float[] yaws;
+	private float[] pitches;
+	private short[] worlds;
+	private short[] types;
+	private String[] names;
+	private Statue[] handles;
+	private int[] nextOwned;
+	private int[] previousOwned;
+
+	/**
+	 * The number of slots ever used; slots below it are either live or in freeSlots.
+	 */
+	private int slotLimit;
+	private int size;
+	private final IntArrayList freeSlots = new IntArrayList();
+
+	private final ObjectArrayList<String> worldNames = new ObjectArrayList<>();
+	private final Object2IntOpenHashMap<String> worldIndex = new Object2IntOpenHashMap<>();
+
+	/**
+	 * Open-addressed tables of slot + 1 (0 marks an empty cell), keyed by (owner, name)
+	 * and by statue ID. Both are kept at least twice as large as the record arrays.
+	 */
+	private int[] nameTable;
+	private int[] idTable;
+	private int tableMask;
+
+	/**
+	 * Open-addressed table of owners with the first slot of each owner's chain, or -1,
+	 * and the owner's sorted statue names. Owners stay in the table once added.
+	 */
+	private long[] ownerKeyMsbs;
+	private long[] ownerKeyLsbs;
+	private int[] ownerHeads;
+	private SortedNameIndex[] ownerNames;
+	private boolean[] ownerUsed;
+	private int ownerMask;
+	private int ownerCount;
+
+	StatueRegistry() {
+		worldIndex.defaultReturnValue(-1);
+		reset();
+	}
+
+	/**
+	 * @return The number of registered statues.
+	 */
+	int size() {
+		long stamp = lock.readLock();
+		try {
+			return size;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Adds a statue. The caller must make sure that the owner has no statue with this
+	 * name and that no other statue uses the same ID.
+	 * @param ownerId The UUID of the player who owns the statue.
+	 * @param name The statue name.
+	 * @param entityType The statue's entity type.
+	 * @param data The statue's state.
+	 * @return The handle of the new statue.
+	 */
+	Statue add(UUID ownerId, String name, EntityType entityType, StatueData data) {
+		long stamp = lock.writeLock();
+		try {
+			return insertStatue(ownerId, name, entityType, data);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	private Statue insertStatue(UUID ownerId, String name, EntityType entityType, StatueData data) {
+		int slot;
+		if (!freeSlots.isEmpty()) {
+			slot = freeSlots.removeInt(freeSlots.size() - 1);
+		} else {
+			if (slotLimit == handles.length) {
+				grow(handles.length * 2);
+			}
+			slot = slotLimit++;
+		}
+		long msb = ownerId.getMostSignificantBits();
+		long lsb = ownerId.getLeastSignificantBits();
+		ownerMsbs[slot] = msb;
+		ownerLsbs[slot] = lsb;
+		names[slot] = name;
+		types[slot] = (short) entityType.ordinal();
+		write(slot, data);
+		Statue statue = new Statue(this, slot);
+		handles[slot] = statue;
+		size++;
+
+		insert(nameTable, nameHash(msb, lsb, name), slot);
+		insert(idTable, idHash(ids[slot]), slot);
+		int owner = ownerPosition(msb, lsb, true);
+		int head = ownerHeads[owner];
+		previousOwned[slot] = -1;
+		nextOwned[slot] = head;
+		if (head >= 0) {
+			previousOwned[head] = slot;
+		}
+		ownerHeads[owner] = slot;
+		ownerNames[owner].add(name);
+		return statue;
+	}
+
+	/**
+	 * Finds a statue by owner and name.
+	 * @param ownerId The UUID of the player who owns the statue.
+	 * @param name The statue name.
+	 * @return The statue, or null if there is none.
+	 */
+	Statue get(UUID ownerId, String name) {
+		long stamp = lock.readLock();
+		try {
+			int slot = findByName(ownerId.getMostSignificantBits(), ownerId.getLeastSignificantBits(), name);
+			return slot < 0 ? null : handles[slot];
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Finds a statue by ID.
+	 * @param statueId The statue ID.
+	 * @return The statue, or null if no statue uses the ID.
+	 */
+	Statue byId(long statueId) {
+		long stamp = lock.readLock();
+		try {
+			int slot = findById(statueId);
+			return slot < 0 ? null : handles[slot];
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	boolean containsId(long statueId) {
+		long stamp = lock.readLock();
+		try {
+			return findById(statueId) >= 0;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Returns the statues of one owner, most recently added first.
+	 * @param ownerId The UUID of the player.
+	 * @return The owner's statues, possibly empty.
+	 */
+	ObjectArrayList<Statue> ownedBy(UUID ownerId) {
+		ObjectArrayList<Statue> statues = new ObjectArrayList<>();
+		long stamp = lock.readLock();
+		try {
+			int owner = ownerPosition(ownerId.getMostSignificantBits(), ownerId.getLeastSignificantBits(), false);
+			if (owner < 0) return statues;
+			for (int slot = ownerHeads[owner]; slot >= 0; slot = nextOwned[slot]) {
+				statues.add(handles[slot]);
+			}
+			return statues;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * @param ownerId The UUID of the player.
+	 * @return The number of statues the player owns.
+	 */
+	int countOwnedBy(UUID ownerId) {
+		long stamp = lock.readLock();
+		try {
+			int owner = ownerPosition(ownerId.getMostSignificantBits(), ownerId.getLeastSignificantBits(), false);
+			return owner < 0 ? 0 : ownerNames[owner].size();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Adds the names of an owner's statues that start with a prefix to a list, in
+	 * sorted order. Only the list itself is modified; nothing is allocated per call.
+	 * @param ownerId The UUID of the player.
+	 * @param prefix The prefix; an empty prefix matches every statue.
+	 * @param out The list to add the names to.
+	 */
+	void collectNames(UUID ownerId, String prefix, ObjectList<String> out) {
+		long stamp = lock.readLock();
+		try {
+			int owner = ownerPosition(ownerId.getMostSignificantBits(), ownerId.getLeastSignificantBits(), false);
+			if (owner >= 0) {
+				ownerNames[owner].collect(prefix, out);
+			}
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * @return Every registered statue, in slot order.
+	 */
+	ObjectArrayList<Statue> statues() {
+		long stamp = lock.readLock();
+		try {
+			ObjectArrayList<Statue> statues = new ObjectArrayList<>(size);
+			for (int slot = 0; slot < slotLimit; slot++) {
+				if (handles[slot] != null) {
+					statues.add(handles[slot]);
+				}
+			}
+			return statues;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Snapshots a run of statues in slot order, so a long scan can hold the lock for one
+	 * short stretch at a time. Statues added or removed between calls may or may not be seen.
+	 * @param fromSlot The slot to start at; 0 for the first call.
+	 * @param max The most statues to snapshot.
+	 * @param out The list to add the snapshots to.
+	 * @return The slot to continue from, or -1 once every slot has been visited.
+	 */
+	int describe(int fromSlot, int max, ObjectList<StatueDescriptor> out) {
+		long stamp = lock.readLock();
+		try {
+			int slot = fromSlot;
+			for (int added = 0; slot < slotLimit && added < max; slot++) {
+				if (handles[slot] != null) {
+					out.add(describeSlot(slot));
+					added++;
+				}
+			}
+			return slot < slotLimit ? slot : -1;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Snapshots one statue's owner, name and state together.
+	 * @param statue The statue.
+	 * @return The snapshot, or null once the statue has been removed.
+	 */
+	StatueDescriptor describe(Statue statue) {
+		long stamp = lock.readLock();
+		try {
+			int slot = statue.slot();
+			return slot < 0 ? null : describeSlot(slot);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	private StatueDescriptor describeSlot(int slot) {
+		return new StatueDescriptor(new UUID(ownerMsbs[slot], ownerLsbs[slot]), names[slot], ENTITY_TYPES[types[slot]],
+				new StatueData(worldNames.get(worlds[slot]), xs[slot], ys[slot], zs[slot], yaws[slot], pitches[slot],
+						ENTITY_TYPES[types[slot]].name(), ids[slot]));
+	}
+
+	/**
+	 * Removes a statue, detaching its handle and freeing its slot for reuse. Indexes
+	 * outside the registry that use the statue's position must be updated first.
+	 * @param statue The statue to remove.
+	 */
+	void remove(Statue statue) {
+		long stamp = lock.writeLock();
+		try {
+			removeStatue(statue);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	private void removeStatue(Statue statue) {
+		int slot = statue.slot();
+		if (slot < 0 || handles[slot] != statue) return;
+		long msb = ownerMsbs[slot];
+		long lsb = ownerLsbs[slot];
+		delete(nameTable, nameHash(msb, lsb, names[slot]), slot, true);
+		delete(idTable, idHash(ids[slot]), slot, false);
+		int owner = ownerPosition(msb, lsb, false);
+		ownerNames[owner].remove(names[slot]);
+		int next = nextOwned[slot];
+		int previous = previousOwned[slot];
+		if (previous >= 0) {
+			nextOwned[previous] = next;
+		} else {
+			ownerHeads[owner] = next;
+		}
+		if (next >= 0) {
+			previousOwned[next] = previous;
+		}
+		names[slot] = null;
+		handles[slot] = null;
+		statue.detach();
+		freeSlots.add(slot);
+		size--;
+	}
+
+	/**
+	 * Replaces a statue's position, rotation and ID with those of a snapshot. The owner,
+	 * name and entity type of a statue never change. The statue's slot is checked under
+	 * the write lock, so a statue removed by another region thread is never written
+	 * through a stale or reused slot.
+	 * @param statue The statue.
+	 * @param data The new state.
+	 * @return False if the statue has been removed.
+	 */
+	boolean update(Statue statue, StatueData data) {
+		long stamp = lock.writeLock();
+		try {
+			int slot = statue.slot();
+			if (slot < 0 || handles[slot] != statue) return false;
+			if (data.statueId() != ids[slot]) {
+				delete(idTable, idHash(ids[slot]), slot, false);
+				write(slot, data);
+				insert(idTable, idHash(ids[slot]), slot);
+			} else {
+				write(slot, data);
+			}
+			return true;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	void clear() {
+		long stamp = lock.writeLock();
+		try {
+			reset();
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	private void reset() {
+		for (int slot = 0; slot < slotLimit; slot++) {
+			if (handles[slot] != null) {
+				handles[slot].detach();
+			}
+		}
+		allocate(INITIAL_CAPACITY);
+		ownerKeyMsbs = new long[INITIAL_OWNER_CAPACITY];
+		ownerKeyLsbs = new long[INITIAL_OWNER_CAPACITY];
+		ownerHeads = new int[INITIAL_OWNER_CAPACITY];
+		ownerNames = new SortedNameIndex[INITIAL_OWNER_CAPACITY];
+		ownerUsed = new boolean[INITIAL_OWNER_CAPACITY];
+		ownerMask = INITIAL_OWNER_CAPACITY - 1;
+		ownerCount = 0;
+		slotLimit = 0;
+		size = 0;
+		freeSlots.clear();
+		worldNames.clear();
+		worldIndex.clear();
+	}
+
+	/**
+	 * Estimates the heap used by the registry's arrays and tables, excluding the
+	 * statue name strings and handles.
+	 * @return The estimate in bytes.
+	 */
+	long estimatedBytes() {
+		long perSlot = 3L * Long.BYTES + 3L * Double.BYTES + 2L * Float.BYTES + 2L * Short.BYTES + 2L * 4 + 2L * Integer.BYTES;
+		long stamp = lock.readLock();
+		try {
+			long tables = 2L * Integer.BYTES * nameTable.length;
+			long owners = (2L * Long.BYTES + 2L * Integer.BYTES + 1) * ownerUsed.length;
+			return perSlot * handles.length + tables + owners;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * @param statue The statue.
+	 * @param slot The slot read from the statue.
+	 * @return True if the slot still holds the statue. Used to validate optimistic reads,
+	 *         and to check the slot before indexing the arrays.
+	 */
+	private boolean holds(Statue statue, int slot) {
+		return slot >= 0 && slot < handles.length && handles[slot] == statue;
+	}
+
+	/**
+	 * @return The statue's owner, or null once it has been removed.
+	 */
+	UUID ownerId(Statue statue) {
+		long stamp = lock.tryOptimisticRead();
+		int slot = statue.slot();
+		if (holds(statue, slot)) {
+			long msb = ownerMsbs[slot];
+			long lsb = ownerLsbs[slot];
+			if (lock.validate(stamp)) return new UUID(msb, lsb);
+		}
+		stamp = lock.readLock();
+		try {
+			slot = statue.slot();
+			return holds(statue, slot) ? new UUID(ownerMsbs[slot], ownerLsbs[slot]) : null;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * @return The statue's name, or null once it has been removed.
+	 */
+	String name(Statue statue) {
+		long stamp = lock.tryOptimisticRead();
+		int slot = statue.slot();
+		if (holds(statue, slot)) {
+			String name = names[slot];
+			if (lock.validate(stamp)) return name;
+		}
+		stamp = lock.readLock();
+		try {
+			slot = statue.slot();
+			return holds(statue, slot) ? names[slot] : null;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * @return The statue's entity type, or null once it has been removed.
+	 */
+	EntityType entityType(Statue statue) {
+		long stamp = lock.tryOptimisticRead();
+		int slot = statue.slot();
+		if (holds(statue, slot)) {
+			short type = types[slot];
+			if (lock.validate(stamp)) return ENTITY_TYPES[type];
+		}
+		stamp = lock.readLock();
+		try {
+			slot = statue.slot();
+			return holds(statue, slot) ? ENTITY_TYPES[types[slot]] : null;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * @return The name of the statue's world, or null once it has been removed.
+	 */
+	String worldName(Statue statue) {
+		long stamp = lock.readLock();
+		try {
+			int slot = statue.slot();
+			return holds(statue, slot) ? worldNames.get(worlds[slot]) : null;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Reads one coordinate of a statue.
+	 * @param axis 0 for X, 1 for Y and 2 for Z.
+	 * @return The coordinate, or NaN once the statue has been removed.
+	 */
+	double coordinate(Statue statue, int axis) {
+		long stamp = lock.tryOptimisticRead();
+		int slot = statue.slot();
+		if (holds(statue, slot)) {
+			double value = axis == 0 ? xs[slot] : axis == 1 ? ys[slot] : zs[slot];
+			if (lock.validate(stamp)) return value;
+		}
+		stamp = lock.readLock();
+		try {
+			slot = statue.slot();
+			if (!holds(statue, slot)) return Double.NaN;
+			return axis == 0 ? xs[slot] : axis == 1 ? ys[slot] : zs[slot];
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * @return The statue's ID, or {@link StatueData#NO_ID} once it has been removed.
+	 */
+	long statueId(Statue statue) {
+		long stamp = lock.tryOptimisticRead();
+		int slot = statue.slot();
+		if (holds(statue, slot)) {
+			long id = ids[slot];
+			if (lock.validate(stamp)) return id;
+		}
+		stamp = lock.readLock();
+		try {
+			slot = statue.slot();
+			return holds(statue, slot) ? ids[slot] : StatueData.NO_ID;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * @param statue The statue.
+	 * @return The packed key of the chunk the statue stands in, from one consistent read
+	 *         of its X and Z coordinates, or {@link StatueChunkIndex#NO_CHUNK} once it has
+	 *         been removed.
+	 */
+	long chunkKey(Statue statue) {
+		long stamp = lock.tryOptimisticRead();
+		int slot = statue.slot();
+		if (holds(statue, slot)) {
+			double x = xs[slot];
+			double z = zs[slot];
+			if (lock.validate(stamp)) return StatueChunkIndex.chunkKey(x, z);
+		}
+		stamp = lock.readLock();
+		try {
+			slot = statue.slot();
+			return holds(statue, slot) ? StatueChunkIndex.chunkKey(xs[slot], zs[slot]) : StatueChunkIndex.NO_CHUNK;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Builds a snapshot of a statue's current state.
+	 * @param statue The statue.
+	 * @return The snapshot, or null if the statue has been removed.
+	 */
+	StatueData data(Statue statue) {
+		long stamp = lock.readLock();
+		try {
+			int slot = statue.slot();
+			if (slot < 0) return null;
+			return new StatueData(worldNames.get(worlds[slot]), xs[slot], ys[slot], zs[slot], yaws[slot], pitches[slot],
+					ENTITY_TYPES[types[slot]].name(), ids[slot]);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	private void write(int slot, StatueData data) {
+		worlds[slot] = (short) internWorld(data.worldName());
+		xs[slot] = data.x();
+		ys[slot] = data.y();
+		zs[slot] = data.z();
+		yaws[slot] = data.yaw();
+		pitches[slot] = data.pitch();
+		ids[slot] = data.statueId();
+	}
+
+	private int internWorld(String worldName) {
+		int index = worldIndex.getInt(worldName);
+		if (index < 0) {
+			index = worldNames.size();
+			worldNames.add(worldName);
+			worldIndex.put(worldName, index);
+		}
+		return index;
+	}
+
+	private int findByName(long msb, long lsb, String name) {
+		int pos = nameHash(msb, lsb, name) & tableMask;
+		int entry;
+		while ((entry = nameTable[pos]) != 0) {
+			int slot = entry - 1;
+			if (ownerMsbs[slot] == msb && ownerLsbs[slot] == lsb && names[slot].equals(name)) {
+				return slot;
+			}
+			pos = (pos + 1) & tableMask;
+		}
+		return -1;
+	}
+
+	private int findById(long statueId) {
+		int pos = idHash(statueId) & tableMask;
+		int entry;
+		while ((entry = idTable[pos]) != 0) {
+			if (ids[entry - 1] == statueId) {
+				return entry - 1;
+			}
+			pos = (pos + 1) & tableMask;
+		}
+		return -1;
+	}
+
+	private void insert(int[] table, int hash, int slot) {
+		int pos = hash & tableMask;
+		while (table[pos] != 0) {
+			pos = (pos + 1) & tableMask;
+		}
+		table[pos] = slot + 1;
+	}
+
+	/**
+	 * Removes a slot from one of the tables, shifting later entries of the same probe
+	 * run back so lookups never need tombstones.
+	 */
+	private void delete(int[] table, int hash, int slot, boolean byName) {
+		int pos = hash & tableMask;
+		while (table[pos] != slot + 1) {
+			if (table[pos] == 0) return;
+			pos = (pos + 1) & tableMask;
+		}
+		for (;;) {
+			int last = pos;
+			pos = (pos + 1) & tableMask;
+			for (;;) {
+				int entry = table[pos];
+				if (entry == 0) {
+					table[last] = 0;
+					return;
+				}
+				int other = entry - 1;
+				int ideal = (byName ? nameHash(ownerMsbs[other], ownerLsbs[other], names[other]) : idHash(ids[other])) & tableMask;
+				if (last <= pos ? last >= ideal || ideal > pos : last >= ideal && ideal > pos) {
+					break;
+				}
+				pos = (pos + 1) & tableMask;
+			}
+			table[last] = table[pos];
+		}
+	}
+
+	/**
+	 * Finds an owner's cell in the owner table.
+	 * @param create Whether to add the owner, with an empty chain, if it is missing.
+	 * @return The cell, or -1 if the owner is missing and create is false.
+	 */
+	private int ownerPosition(long msb, long lsb, boolean create) {
+		int pos = mix(msb ^ Long.rotateLeft(lsb, 32)) & ownerMask;
+		while (ownerUsed[pos]) {
+			if (ownerKeyMsbs[pos] == msb && ownerKeyLsbs[pos] == lsb) {
+				return pos;
+			}
+			pos = (pos + 1) & ownerMask;
+		}
+		if (!create) return -1;
+		ownerUsed[pos] = true;
+		ownerKeyMsbs[pos] = msb;
+		ownerKeyLsbs[pos] = lsb;
+		ownerHeads[pos] = -1;
+		ownerNames[pos] = new SortedNameIndex();
+		if (++ownerCount > (ownerMask + 1) / 2) {
+			growOwners();
+			return ownerPosition(msb, lsb, false);
+		}
+		return pos;
+	}
+
+	private void growOwners() {
+		long[] oldMsbs = ownerKeyMsbs;
+		long[] oldLsbs = ownerKeyLsbs;
+		int[] oldHeads = ownerHeads;
+		SortedNameIndex[] oldNames = ownerNames;
+		boolean[] oldUsed = ownerUsed;
+		int capacity = oldUsed.length * 2;
+		ownerKeyMsbs = new long[capacity];
+		ownerKeyLsbs = new long[capacity];
+		ownerHeads = new int[capacity];
+		ownerNames = new SortedNameIndex[capacity];
+		ownerUsed = new boolean[capacity];
+		ownerMask = capacity - 1;
+		for (int i = 0; i < oldUsed.length; i++) {
+			if (!oldUsed[i]) continue;
+			int pos = mix(oldMsbs[i] ^ Long.rotateLeft(oldLsbs[i], 32)) & ownerMask;
+			while (ownerUsed[pos]) {
+				pos = (pos + 1) & ownerMask;
+			}
+			ownerUsed[pos] = true;
+			ownerKeyMsbs[pos] = oldMsbs[i];
+			ownerKeyLsbs[pos] = oldLsbs[i];
+			ownerHeads[pos] = oldHeads[i];
+			ownerNames[pos] = oldNames[i];
+		}
+	}
+
+	private void allocate(int capacity) {
+		ownerMsbs = new long[capacity];
+		ownerLsbs = new long[capacity];
+		ids = new long[capacity];
+		xs = new double[capacity];
+		ys = new double[capacity];
+		zs = new double[capacity];
+		yaws = new float[capacity];
+		pitches = new float[capacity];
+		worlds = new short[capacity];
+		types = new short[capacity];
+		names = new String[capacity];
+		handles = new Statue[capacity];
+		nextOwned = new int[capacity];
+		previousOwned = new int[capacity];
+		nameTable = new int[capacity * 2];
+		idTable = new int[capacity * 2];
+		tableMask = capacity * 2 - 1;
+	}
+
+	/**
+	 * Grows the record arrays and rebuilds both lookup tables at the new size.
+	 */
+	private void grow(int capacity) {
+		ownerMsbs = Arrays.copyOf(ownerMsbs, capacity);
+		ownerLsbs = Arrays.copyOf(ownerLsbs, capacity);
+		ids = Arrays.copyOf(ids, capacity);
+		xs = Arrays.copyOf(xs, capacity);
+		ys = Arrays.copyOf(ys, capacity);
+		zs = Arrays.copyOf(zs, capacity);
+		yaws = Arrays.copyOf(yaws, capacity);
+		pitches = Arrays.copyOf(pitches, capacity);
+		worlds = Arrays.copyOf(worlds, capacity);
+		types = Arrays.copyOf(types, capacity);
+		names = Arrays.copyOf(names, capacity);
+		handles = Arrays.copyOf(handles, capacity);
+		nextOwned = Arrays.copyOf(nextOwned, capacity);
+		previousOwned = Arrays.copyOf(previousOwned, capacity);
+		nameTable = new int[capacity * 2];
+		idTable = new int[capacity * 2];
+		tableMask = capacity * 2 - 1;
+		for (int slot = 0; slot < slotLimit; slot++) {
+			if (handles[slot] != null) {
+				insert(nameTable, nameHash(ownerMsbs[slot], ownerLsbs[slot], names[slot]), slot);
+				insert(idTable, idHash(ids[slot]), slot);
+			}
+		}
+	}
+
+	private static int nameHash(long msb, long lsb, String name) {
+		return mix(msb ^ Long.rotateLeft(lsb, 32) ^ name.hashCode() * 0x9E3779B97F4A7C15L);
+	}
+
+	private static int idHash(long statueId) {
+		return mix(statueId);
+	}
+
+	private static int mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+}
@@ -0,0 +1,82 @@
+package main;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Runs statue work on the right thread. On Spigot and Paper every world is ticked by
+ * the one server thread; on region-threaded servers such as Folia each region of
+ * loaded chunks has its own thread, entities may only be touched by the thread that
+ * owns them, and the Bukkit scheduler is not available.
+ */
+interface StatueScheduler {
+
+	/**
+	 * A repeating task.
+	 */
+	interface Task {
+		void cancel();
+	}
+
+	/**
+	 * Picks the scheduler for the running server.
+	 * @param plugin The owning plugin.
+	 * @return The region scheduler on region-threaded servers, the Bukkit scheduler otherwise.
+	 */
+	static StatueScheduler create(Plugin plugin) {
+		if (RegionStatueScheduler.isSupported()) {
+			try {
+				return new RegionStatueScheduler(plugin);
+			} catch (ReflectiveOperationException e) {
+				plugin.getLogger().warning("Region-threaded server detected, but its schedulers could not be found.");
+				e.printStackTrace();
+			}
+		}
+		return new BukkitStatueScheduler(plugin);
+	}
+
+	/**
+	 * @return True if work is spread over several region threads.
+	 */
+	boolean regionThreaded();
+
+	/**
+	 * Runs a task on the thread that owns a chunk, immediately if that is the current thread.
+	 * @param world The world.
+	 * @param chunkX The chunk X coordinate.
+	 * @param chunkZ The chunk Z coordinate.
+	 * @param task The task.
+	 */
+	void runAt(World world, int chunkX, int chunkZ, Runnable task);
+
+	/**
+	 * Runs a task on the thread that owns an entity, immediately if that is the current
+	 * thread. The task is dropped if the entity is removed first.
+	 * @param entity The entity.
+	 * @param task The task.
+	 */
+	void runFor(Entity entity, Runnable task);
+
+	/**
+	 * Runs a task on the thread for work that belongs to no region: the server thread,
+	 * or the global region thread.
+	 * @param task The task.
+	 */
+	void runGlobal(Runnable task);
+
+	/**
+	 * Repeats a task on the global thread.
+	 * @param task The task.
+	 * @param delayTicks The ticks before the first run, at least 1.
+	 * @param periodTicks The ticks between runs.
+	 * @return The task, to cancel it.
+	 */
+	Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks);
+
+	/**
+	 * Runs a task on a background thread.
+	 * @param task The task.
+	 */
+	void runAsync(Runnable task);
+}
@@ -0,0 +1,234 @@
+package main;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Queues statue entity work (spawn, despawn and re-spawn) and drains it on the server
+ * thread within a per-tick time budget. The budget shrinks while the server is already
+ * running behind, so statue work never turns a slow tick into a slower one. At least
+ * one operation runs every tick, so the queue always makes progress.
+ *
+ * <p>Operations may be queued from any thread; region-threaded servers fire chunk
+ * events on the region threads. The queue is drained on the global thread, and the
+ * handler hands each operation to the thread that owns the statue's chunk or entity.
+ * Timing the drain would then only time the hand-off, so the handler wraps that work
+ * in {@link #charged(Runnable)}, and the time it takes on the region threads is taken
+ * out of the following ticks' budgets.
+ */
+final class StatueSpawnScheduler {
+
+	/**
+	 * Performs the actual entity work for queued operations.
+	 */
+	interface Handler {
+		/**
+		 * Spawns a statue's entity if its chunk is loaded and it has no live entity.
+		 * @param statue The statue to spawn.
+		 */
+		void spawn(Statue statue);
+
+		/**
+		 * Removes a statue's entity and passengers, if any.
+		 * @param statue The statue to despawn.
+		 */
+		void despawn(Statue statue);
+	}
+
+	private static final byte SPAWN = 0;
+	private static final byte DESPAWN = 1;
+	private static final byte RESPAWN = 2;
+
+	private static final long TICK_NANOS = 50_000_000L;
+
+	/**
+	 * Queued operations, oldest first. Operations for the same statue run in the order
+	 * they were queued, so the last one decides the statue's final state. Guarded by
+	 * its own monitor, as is the peak depth.
+	 */
+	private final ArrayDeque<Operation> queue = new ArrayDeque<>();
+
+	private final Handler handler;
+	private final Logger logger;
+	private final long budgetNanos;
+	private final long minBudgetNanos;
+	private StatueScheduler.Task task;
+	private boolean regionThreaded;
+
+	/**
+	 * Time spent on region threads running charged work that has not yet been taken out
+	 * of a budget, in nanoseconds.
+	 */
+	private final AtomicLong chargedNanos = new AtomicLong();
+
+	/**
+	 * An exponential moving average of the time between two runs of the drain task,
+	 * which is the server's effective tick length.
+	 */
+	private double averageTickNanos = TICK_NANOS;
+	private long lastRunNanos;
+	private int peakDepth;
+	private long drainedSincePeak;
+	private int ticksSincePeak;
+
+	StatueSpawnScheduler(Handler handler, Logger logger, double budgetMillis, double minBudgetMillis) {
+		this.handler = handler;
+		this.logger = logger;
+		this.budgetNanos = (long) (Math.max(0.05, budgetMillis) * 1_000_000L);
+		this.minBudgetNanos = Math.min(budgetNanos, (long) (Math.max(0.01, minBudgetMillis) * 1_000_000L));
+	}
+
+	/**
+	 * Starts draining the queue once per tick.
+	 * @param scheduler The scheduler to drain on.
+	 */
+	void start(StatueScheduler scheduler) {
+		regionThreaded = scheduler.regionThreaded();
+		task = scheduler.runGlobalTimer(this::drain, 1L, 1L);
+	}
+
+	/**
+	 * Stops the drain task. Pending despawns are run immediately so no entity outlives
+	 * its record; pending spawns are dropped.
+	 */
+	void stop() {
+		if (task != null) {
+			task.cancel();
+			task = null;
+		}
+		Operation operation;
+		while ((operation = poll()) != null) {
+			if (operation.kind != SPAWN) {
+				handler.despawn(operation.statue);
+			}
+		}
+	}
+
+	/**
+	 * Wraps work the handler hands to another thread so its time counts against the
+	 * budget. On single-threaded servers the work runs inside the drain, which already
+	 * times it, and is returned unchanged.
+	 * @param work The entity work.
+	 * @return The work to schedule.
+	 */
+	Runnable charged(Runnable work) {
+		if (!regionThreaded) return work;
+		return () -> {
+			long start = System.nanoTime();
+			try {
+				work.run();
+			} finally {
+				chargedNanos.addAndGet(System.nanoTime() - start);
+			}
+		};
+	}
+
+	void queueSpawn(Statue statue) {
+		enqueue(statue, SPAWN);
+	}
+
+	void queueDespawn(Statue statue) {
+		enqueue(statue, DESPAWN);
+	}
+
+	void queueRespawn(Statue statue) {
+		enqueue(statue, RESPAWN);
+	}
+
+	/**
+	 * @return The number of operations waiting to run.
+	 */
+	int queueDepth() {
+		synchronized (queue) {
+			return queue.size();
+		}
+	}
+
+	/**
+	 * @return The time budget that will be used for the next tick, in nanoseconds.
+	 */
+	long currentBudgetNanos() {
+		if (averageTickNanos <= TICK_NANOS * 1.1) {
+			return budgetNanos;
+		}
+		return Math.max(minBudgetNanos, (long) (budgetNanos * (TICK_NANOS / averageTickNanos)));
+	}
+
+	private void enqueue(Statue statue, byte kind) {
+		Operation operation = new Operation(statue, kind);
+		synchronized (queue) {
+			queue.add(operation);
+			if (queue.size() > peakDepth) {
+				peakDepth = queue.size();
+			}
+		}
+	}
+
+	private Operation poll() {
+		synchronized (queue) {
+			return queue.poll();
+		}
+	}
+
+	/**
+	 * Runs queued operations until the queue is empty or this tick's budget is spent.
+	 */
+	private void drain() {
+		long now = System.nanoTime();
+		if (lastRunNanos != 0L) {
+			averageTickNanos = averageTickNanos * 0.9 + (now - lastRunNanos) * 0.1;
+		}
+		lastRunNanos = now;
+
+		long budget = currentBudgetNanos();
+		long charged = chargedNanos.getAndSet(0L);
+		if (charged > budget) {
+			// Region threads overran the budget; carry the rest over to later ticks.
+			chargedNanos.addAndGet(charged - budget);
+		}
+		long deadline = now + budget - Math.min(charged, budget);
+		int ran = 0;
+		Operation operation;
+		while ((operation = poll()) != null) {
+			switch (operation.kind) {
+				case SPAWN -> handler.spawn(operation.statue);
+				case DESPAWN -> handler.despawn(operation.statue);
+				default -> {
+					handler.despawn(operation.statue);
+					handler.spawn(operation.statue);
+				}
+			}
+			ran++;
+			if (System.nanoTime() >= deadline) break;
+		}
+		if (ran == 0) return;
+
+		drainedSincePeak += ran;
+		ticksSincePeak++;
+		int drainedPeak = -1;
+		synchronized (queue) {
+			if (queue.isEmpty()) {
+				drainedPeak = peakDepth;
+				peakDepth = 0;
+			}
+		}
+		if (drainedPeak >= 0) {
+			if (drainedPeak >= 100) {
+				logger.info("Drained " + drainedSincePeak + " statue entity operations over " + ticksSincePeak + " ticks (peak queue depth " + drainedPeak + ").");
+			}
+			drainedSincePeak = 0L;
+			ticksSincePeak = 0;
+		}
+	}
+
+	private static final class Operation {
+		private final Statue statue;
+		private final byte kind;
+
+		Operation(Statue statue, byte kind) {
+			this.statue = statue;
+			this.kind = kind;
+		}
+	}
+}
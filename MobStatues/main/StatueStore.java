@@ -0,0 +1,69 @@
+package main;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * A storage backend for statue records. Implementations are only ever written from one
+ * thread at a time: writes happen on the persistence thread or on the shutdown barrier.
+ * Loading happens on worker threads during startup, before the first write.
+ */
+interface StatueStore {
+
+	/**
+	 * Reads every stored statue.
+	 * @return Player UUID to a map of statue name to its stored data.
+	 * @throws IOException If the backing storage cannot be read.
+	 */
+	Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>> loadAll() throws IOException;
+
+	/**
+	 * Splits loading into independent parts that may run concurrently on different
+	 * threads. Each part returns the statues it decoded; owners never span parts.
+	 * The default is a single part that calls {@link #loadAll()}.
+	 * @return The load parts.
+	 * @throws IOException If the backing storage cannot be listed.
+	 */
+	default ObjectList<Callable<Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>>>> loadParts() throws IOException {
+		ObjectList<Callable<Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>>>> parts = new ObjectArrayList<>(1);
+		parts.add(this::loadAll);
+		return parts;
+	}
+
+	/**
+	 * Applies a batch of changes for one player.
+	 * @param playerId The UUID of the player.
+	 * @param changes Statue name to new data, or to null for a removal.
+	 * @return The number of bytes written.
+	 * @throws IOException If the changes cannot be written.
+	 */
+	long write(UUID playerId, Object2ObjectOpenHashMap<String, StatueData> changes) throws IOException;
+
+	/**
+	 * Makes every write applied so far durable. Called once after each batch.
+	 * @throws IOException If the data cannot be synced to disk.
+	 */
+	default void sync() throws IOException {
+	}
+
+	/**
+	 * Checks whether this store can hold a statue with the given name.
+	 * @param statueName The name of the statue.
+	 * @return True if the name can be stored.
+	 */
+	default boolean supportsName(String statueName) {
+		return true;
+	}
+
+	/**
+	 * Releases any resources held by the store.
+	 * @throws IOException If pending data cannot be written out.
+	 */
+	default void close() throws IOException {
+	}
+}
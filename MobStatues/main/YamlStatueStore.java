@@ -0,0 +1,134 @@
+package main;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectList;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * The original storage format: one YAML file per player in the "players" folder,
+ * with one section per statue under "statues". Files are replaced atomically, so a
+ * crash during a save leaves the previous version of the file intact.
+ */
+final class YamlStatueStore implements StatueStore {
+
+	/**
+	 * How many player files a single load part parses.
+	 */
+	private static final int FILES_PER_PART = 32;
+
+	private final File playersDataFolder;
+
+	YamlStatueStore(File playersDataFolder) {
+		this.playersDataFolder = playersDataFolder;
+	}
+
+	File playersDataFolder() {
+		return playersDataFolder;
+	}
+
+	/**
+	 * Checks whether any player files exist in the players folder.
+	 * @return True if at least one player YAML file is present.
+	 */
+	boolean hasData() {
+		File[] playerDataFiles = playersDataFolder.listFiles((dir, name) -> name.endsWith(".yml"));
+		return playerDataFiles != null && playerDataFiles.length > 0;
+	}
+
+	@Override
+	public Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>> loadAll() {
+		return loadFiles(listPlayerFiles(), 0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Splits the player files into batches of {@link #FILES_PER_PART} that are parsed
+	 * independently.
+	 */
+	@Override
+	public ObjectList<Callable<Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>>>> loadParts() {
+		File[] playerDataFiles = listPlayerFiles();
+		ObjectList<Callable<Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>>>> parts = new ObjectArrayList<>();
+		for (int from = 0; from < playerDataFiles.length; from += FILES_PER_PART) {
+			int start = from;
+			parts.add(() -> loadFiles(playerDataFiles, start, start + FILES_PER_PART));
+		}
+		return parts;
+	}
+
+	private File[] listPlayerFiles() {
+		if (!playersDataFolder.exists()) {
+			playersDataFolder.mkdirs();
+		}
+		File[] playerDataFiles = playersDataFolder.listFiles((dir, name) -> name.endsWith(".yml"));
+		return playerDataFiles != null ? playerDataFiles : new File[0];
+	}
+
+	/**
+	 * Parses a range of player files.
+	 * @param playerDataFiles The player files.
+	 * @param from The first index to parse, inclusive.
+	 * @param to The last index to parse, exclusive; clamped to the array length.
+	 * @return Player UUID to a map of statue name to its stored data.
+	 */
+	private static Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>> loadFiles(File[] playerDataFiles, int from, int to) {
+		Object2ObjectOpenHashMap<UUID, Object2ObjectOpenHashMap<String, StatueData>> result = new Object2ObjectOpenHashMap<>();
+		for (int i = from, end = Math.min(to, playerDataFiles.length); i < end; i++) {
+			File playerDataFile = playerDataFiles[i];
+			String playerName = playerDataFile.getName().replace(".yml", "");
+			UUID playerId;
+			try {
+				playerId = UUID.fromString(playerName);
+			} catch (IllegalArgumentException e) {
+				continue;
+			}
+			FileConfiguration playerDataConfig = YamlConfiguration.loadConfiguration(playerDataFile);
+			ConfigurationSection statuesSection = playerDataConfig.getConfigurationSection("statues");
+			if (statuesSection == null) {
+				continue;
+			}
+			Object2ObjectOpenHashMap<String, StatueData> playerStatues = new Object2ObjectOpenHashMap<>();
+			for (String statueName : statuesSection.getKeys(false)) {
+				ConfigurationSection statueSection = statuesSection.getConfigurationSection(statueName);
+				if (statueSection != null) {
+					playerStatues.put(statueName, StatueData.readFrom(statueSection));
+				}
+			}
+			if (!playerStatues.isEmpty()) {
+				result.put(playerId, playerStatues);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public long write(UUID playerId, Object2ObjectOpenHashMap<String, StatueData> changes) throws IOException {
+		if (!playersDataFolder.exists()) {
+			playersDataFolder.mkdirs();
+		}
+		File playerDataFile = new File(playersDataFolder, playerId.toString() + ".yml");
+		FileConfiguration playerDataConfig = YamlConfiguration.loadConfiguration(playerDataFile);
+		ConfigurationSection statuesSection = playerDataConfig.getConfigurationSection("statues");
+		if (statuesSection == null) {
+			statuesSection = playerDataConfig.createSection("statues");
+		}
+		for (Map.Entry<String, StatueData> change : changes.entrySet()) {
+			StatueData data = change.getValue();
+			if (data == null) {
+				statuesSection.set(change.getKey(), null);
+			} else {
+				data.writeTo(statuesSection.createSection(change.getKey()));
+			}
+		}
+		return AtomicFiles.replace(playerDataFile, playerDataConfig.saveToString());
+	}
+}